@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.bench;
+
+import java.lang.management.ManagementFactory;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+
+import games.spooky.gdx.sfx.SfxFrameStats;
+import games.spooky.gdx.sfx.SfxMetrics;
+import games.spooky.gdx.sfx.SfxSound;
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+import games.spooky.gdx.sfx.spatial.FadingSpatializedSoundPlayer;
+import games.spooky.gdx.sfx.spatial.SomeSoundSpatializer2;
+import games.spooky.gdx.sfx.spatial.SoundGrid2;
+import games.spooky.gdx.sfx.spatial.SoundGroup;
+import games.spooky.gdx.sfx.spatial.SpatializedSoundPlayer;
+
+/**
+ * Ensures that, once warmed up, a frame of spatialized sound playback
+ * allocates nothing. Exits with a non-zero status otherwise. Players created
+ * with a capacity don't get warmed up, as they are meant to allocate
+ * everything upfront.
+ */
+public class AllocationCheck {
+
+	static final float FRAME = 1f / 60f;
+
+	static final int VOICES = 1000;
+	static final int WARMUP_FRAMES = 20000;
+	static final int FRAMES = 2000;
+
+	static final int CAPACITY = 1024;
+
+	static long reported = 0L;
+
+	public static void main(String[] args) {
+		boolean ok = true;
+		ok &= check("SpatializedSoundPlayer", new SpatializedSoundPlayer<Vector2>());
+		FadingSpatializedSoundPlayer<Vector2> fading = new FadingSpatializedSoundPlayer<Vector2>();
+		fading.setFadeTime(0.5f);
+		ok &= check("FadingSpatializedSoundPlayer", fading);
+		ok &= checkCapacity();
+		if (!ok)
+			System.exit(1);
+	}
+
+	/** Grouped sounds, spatially indexed, hundreds of voices per group */
+	static boolean checkCapacity() {
+		SpatializedSoundPlayer<Vector2> player = new SpatializedSoundPlayer<Vector2>(CAPACITY);
+		SomeSoundSpatializer2 spatializer = new SomeSoundSpatializer2();
+		player.setSpatialIndex(new SoundGrid2(spatializer, 20f, CAPACITY));
+		SoundGroup[] groups = { new SoundGroup("sfx"), new SoundGroup("ambience") };
+		for (SoundGroup group : groups)
+			player.addGroup(group);
+		return check("SpatializedSoundPlayer (capacity, groups)", player, spatializer, groups, 0);
+	}
+
+	static boolean check(String name, SpatializedSoundPlayer<Vector2> player) {
+		return check(name, player, new SomeSoundSpatializer2(), null, WARMUP_FRAMES);
+	}
+
+	static boolean check(String name, SpatializedSoundPlayer<Vector2> player, SomeSoundSpatializer2 spatializer,
+			SoundGroup[] groups, int warmupFrames) {
+		RandomXS128 random = new RandomXS128(42L);
+
+		spatializer.setHorizontalRange(20f);
+		spatializer.setVerticalRange(2f);
+		player.setSpatializer(spatializer);
+
+		// Instrumentation has to be free as well
+		player.setMetrics(new SfxMetrics() {
+			@Override
+			public void report(Object source, SfxFrameStats stats) {
+				reported += stats.activeVoices;
+			}
+		});
+
+		// Mix of short one-shots, replayed as they end, and loops
+		SfxSound loop = new SfxSoundWrapper(backend(3f), "loop", 3f);
+		SfxSound shot = new SfxSoundWrapper(backend(0.25f), "shot", 0.25f);
+		Vector2[] positions = new Vector2[VOICES];
+		for (int i = 0; i < VOICES; i++) {
+			positions[i] = new Vector2(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f);
+			if (i % 2 == 0)
+				player.play(positions[i], loop, 1f, 1f, true, 0, group(groups, i));
+		}
+
+		int frame = 0;
+		for (int i = 0; i < warmupFrames; i++)
+			frame(player, spatializer, positions, shot, groups, frame++);
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < FRAMES; i++)
+			frame(player, spatializer, positions, shot, groups, frame++);
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		player.stop();
+
+		System.out.println(name + ": " + ((float) allocated / FRAMES) + " bytes per frame");
+		return allocated == 0L;
+	}
+
+	/** Headless sound whose own voice storage won't grow during the check, only players are under test. */
+	static HeadlessSound backend(float duration) {
+		HeadlessSound sound = new HeadlessSound(duration);
+		for (int i = 0; i < CAPACITY; i++)
+			sound.loop();
+		sound.stop();
+		return sound;
+	}
+
+	static void frame(SpatializedSoundPlayer<Vector2> player, SomeSoundSpatializer2 spatializer, Vector2[] positions, SfxSound shot,
+			SoundGroup[] groups, int frame) {
+		float angle = (frame % 360) * MathUtils.degreesToRadians;
+		spatializer.setCenter(MathUtils.cos(angle) * 10f, MathUtils.sin(angle) * 10f, 0.5f);
+
+		// A few one-shots per frame
+		for (int i = 0; i < 4; i++)
+			player.play(positions[(frame * 4 + i) % VOICES], shot, group(groups, frame * 4 + i));
+
+		player.update(FRAME);
+	}
+
+	static SoundGroup group(SoundGroup[] groups, int i) {
+		return groups == null ? null : groups[i % groups.length];
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+
+import games.spooky.gdx.sfx.SfxSound;
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+import games.spooky.gdx.sfx.spatial.PackedSpatializedSoundPlayer;
+import games.spooky.gdx.sfx.spatial.SomeSoundSpatializer2;
+
+/**
+ * Same as {@link SpatializedSoundPlayerBenchmark}, for {@link PackedSpatializedSoundPlayer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedSpatializedSoundPlayerBenchmark {
+
+	static final float FRAME = 1f / 60f;
+
+	@Param({ "100", "1000", "10000" })
+	int voices;
+
+	@Param({ "false", "true" })
+	boolean movingListener;
+
+	SomeSoundSpatializer2 spatializer;
+	PackedSpatializedSoundPlayer player;
+
+	int frame;
+
+	@Setup
+	public void setup() {
+		RandomXS128 random = new RandomXS128(42L);
+
+		spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(20f);
+		spatializer.setVerticalRange(2f);
+		spatializer.setCenter(0f, 0f, 0.5f);
+
+		player = new PackedSpatializedSoundPlayer(voices);
+		player.setSpatializer(spatializer);
+
+		SfxSound sound = new SfxSoundWrapper(new HeadlessSound(3f), "sound", 3f);
+		for (int i = 0; i < voices; i++)
+			player.play(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f, sound, 1f, true);
+	}
+
+	@Benchmark
+	public void update() {
+		if (movingListener) {
+			float angle = (frame++ % 360) * MathUtils.degreesToRadians;
+			spatializer.setCenter(MathUtils.cos(angle) * 10f, MathUtils.sin(angle) * 10f, 0.5f);
+		}
+		player.update(FRAME);
+	}
+
+}
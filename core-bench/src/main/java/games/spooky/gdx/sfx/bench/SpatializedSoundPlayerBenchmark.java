@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+
+import games.spooky.gdx.sfx.SfxSound;
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+import games.spooky.gdx.sfx.spatial.FadingSpatializedSoundPlayer;
+import games.spooky.gdx.sfx.spatial.SomeSoundSpatializer2;
+import games.spooky.gdx.sfx.spatial.SoundGrid2;
+import games.spooky.gdx.sfx.spatial.SpatializedSoundPlayer;
+
+/**
+ * One frame of {@link SpatializedSoundPlayer#update(float)} (or its fading
+ * counterpart) with a given amount of live looping voices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatializedSoundPlayerBenchmark {
+
+	static final float FRAME = 1f / 60f;
+
+	@Param({ "100", "1000", "10000" })
+	int voices;
+
+	@Param({ "false", "true" })
+	boolean fading;
+
+	@Param({ "false", "true" })
+	boolean movingListener;
+
+	@Param({ "false", "true" })
+	boolean grid;
+
+	SomeSoundSpatializer2 spatializer;
+	SpatializedSoundPlayer<Vector2> player;
+
+	int frame;
+
+	@Setup
+	public void setup() {
+		RandomXS128 random = new RandomXS128(42L);
+
+		spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(20f);
+		spatializer.setVerticalRange(2f);
+		spatializer.setCenter(0f, 0f, 0.5f);
+
+		if (fading) {
+			FadingSpatializedSoundPlayer<Vector2> fadingPlayer = new FadingSpatializedSoundPlayer<Vector2>();
+			fadingPlayer.setFadeTime(0.5f);
+			player = fadingPlayer;
+		} else {
+			player = new SpatializedSoundPlayer<Vector2>();
+		}
+		player.setSpatializer(spatializer);
+		if (grid)
+			player.setSpatialIndex(new SoundGrid2(spatializer, 20f));
+
+		SfxSound sound = new SfxSoundWrapper(new HeadlessSound(3f), "sound", 3f);
+		for (int i = 0; i < voices; i++) {
+			Vector2 position = new Vector2(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f);
+			player.play(position, sound, 1f, true);
+		}
+
+		// Get past fade-ins, if any
+		for (int i = 0; i < 60; i++)
+			player.update(FRAME);
+	}
+
+	@Benchmark
+	public void update() {
+		if (movingListener) {
+			float angle = (frame++ % 360) * MathUtils.degreesToRadians;
+			spatializer.setCenter(MathUtils.cos(angle) * 10f, MathUtils.sin(angle) * 10f, 0.5f);
+		}
+		player.update(FRAME);
+	}
+
+}
@@ -24,14 +24,96 @@
 package games.spooky.gdx.sfx;
 
 import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
 
 public class Effects {
 	
 	static {
-		Pools.set(FadeIn.class, new Pool<FadeIn>() { @Override protected FadeIn newObject() { return new FadeIn(); } });
-		Pools.set(FadeOut.class, new Pool<FadeOut>() { @Override protected FadeOut newObject() { return new FadeOut(); } });
+		Pools.set(FadeIn.class, new EffectPool<FadeIn>() { @Override protected FadeIn newObject() { return new FadeIn(); } });
+		Pools.set(FadeOut.class, new EffectPool<FadeOut>() { @Override protected FadeOut newObject() { return new FadeOut(); } });
+	}
+
+	/** Pool keeping track of how many effects are in use at most. */
+	static abstract class EffectPool<T> extends Pool<T> {
+		int used;
+		int peakUsed;
+
+		EffectPool() {
+			super();
+		}
+
+		EffectPool(int capacity) {
+			super(capacity, capacity);
+		}
+
+		@Override
+		public T obtain() {
+			T object = super.obtain();
+			if (++used > peakUsed)
+				peakUsed = used;
+			return object;
+		}
+
+		@Override
+		public void free(T object) {
+			super.free(object);
+			used--;
+		}
+
+		@Override
+		public void freeAll(Array<T> objects) {
+			for (int i = 0, n = objects.size; i < n; i++)
+				free(objects.get(i));
+		}
+	}
+
+	/**
+	 * Bound the number of effects of given type kept for reuse, replacing its
+	 * pool (and so forgetting about effects kept so far). Effects in use when
+	 * called are not affected.
+	 */
+	static public <T extends SfxMusicEffect> void setPoolCapacity(final Class<T> type, int capacity) {
+		Pools.set(type, new EffectPool<T>(capacity) {
+			@Override
+			protected T newObject() {
+				try {
+					return ClassReflection.newInstance(type);
+				} catch (ReflectionException e) {
+					throw new GdxRuntimeException("Unable to create effect " + type.getName(), e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Create effects of given type ahead of time, so that obtaining up to
+	 * {@code count} of them at once won't allocate.
+	 */
+	static public <T extends SfxMusicEffect> void prewarm(Class<T> type, int count) {
+		Pool<T> pool = Pools.get(type);
+		count -= pool.getFree();
+		if (count <= 0)
+			return;
+		Array<T> effects = new Array<T>(count);
+		for (int i = 0; i < count; i++)
+			effects.add(pool.obtain());
+		pool.freeAll(effects);
+	}
+
+	/**
+	 * Get the highest number of effects of given type that were in use at once
+	 * (or created by {@link #prewarm(Class, int)}), to size pools at load time.
+	 * 
+	 * @return -1 if that pool doesn't keep track of it
+	 */
+	static public int getPeakUsage(Class<? extends SfxMusicEffect> type) {
+		Pool<?> pool = Pools.get(type);
+		return pool instanceof EffectPool ? ((EffectPool<?>) pool).peakUsed : -1;
 	}
 
 	static public <T extends SfxMusicEffect> T effect(Class<T> type) {
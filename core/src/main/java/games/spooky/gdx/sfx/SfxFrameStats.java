@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+/**
+ * Statistics of one update of an audio component, see {@link SfxMetrics}.
+ * Counters cover everything since the previous report, plays made between
+ * two updates included.
+ */
+public class SfxFrameStats {
+
+	/** Live voices (or musics), virtual ones included */
+	public int activeVoices;
+
+	/** Live voices not holding any backend voice */
+	public int virtualVoices;
+
+	/** Voice objects ready for reuse */
+	public int poolFree;
+
+	/** Highest number of voice objects ever ready for reuse at once */
+	public int poolPeak;
+
+	/** Highest number of live voices so far */
+	public int peakVoices;
+
+	public int setVolumeCalls;
+
+	public int setPanCalls;
+
+	public int setPitchCalls;
+
+	/** Plays that failed, i.e. returned -1 */
+	public int failedPlays;
+
+	/** Time spent in the update, in nanoseconds */
+	public long updateNanos;
+
+	public void reset() {
+		activeVoices = 0;
+		virtualVoices = 0;
+		poolFree = 0;
+		poolPeak = 0;
+		peakVoices = 0;
+		setVolumeCalls = 0;
+		setPanCalls = 0;
+		setPitchCalls = 0;
+		failedPlays = 0;
+		updateNanos = 0L;
+	}
+
+	@Override
+	public String toString() {
+		return "voices: " + activeVoices + " (" + virtualVoices + " virtual), pool: " + poolFree + " free (peak "
+				+ poolPeak + "), peak voices: " + peakVoices + ", calls: " + setVolumeCalls + " setVolume, " + setPanCalls + " setPan, "
+				+ setPitchCalls + " setPitch, failed plays: " + failedPlays + ", update: " + updateNanos + "ns";
+	}
+
+}
@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Music only loaded (through an {@link AssetManager}) while needed: loading
+ * is requested by {@link #load()}, or done at once when played, and the music
+ * is unloaded as soon as it stops. Settings and effects are kept in between
+ * and applied to the actual music once loaded.
+ */
+@SuppressWarnings("rawtypes")
+public class SfxLazyMusic implements SfxMusic {
+
+	private final AssetManager manager;
+	private final String fileName;
+	private final SfxMusicLoader.MusicParameters parameters;
+
+	private final Array<SfxMusicEffect> effects = new Array<SfxMusicEffect>(0);
+
+	private SfxMusic music = null;
+	private boolean requested = false;
+	private boolean paused = false;
+
+	private String title;
+	private float duration; // In seconds, 0 until known
+
+	// Copy of settings to apply once loaded
+	private float volume = 1f;
+	private float pan = 0f;
+	private float position = 0f;
+	private boolean looping = false;
+	private OnCompletionListener listener = null;
+
+	public SfxLazyMusic(AssetManager manager, String fileName) {
+		this(manager, fileName, null);
+	}
+
+	/**
+	 * @param parameters
+	 *            loading parameters, giving a duration there avoids having to
+	 *            load the music to know it
+	 */
+	public SfxLazyMusic(AssetManager manager, String fileName, SfxMusicLoader.MusicParameters parameters) {
+		this.manager = manager;
+		this.fileName = fileName;
+		this.parameters = parameters;
+		this.title = parameters != null && parameters.title != null ? parameters.title : fileName;
+		this.duration = parameters != null && parameters.duration > 0f ? parameters.duration : 0f;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	/** Request loading of this music to the asset manager, if not done already. */
+	public void load() {
+		if (!requested) {
+			manager.load(fileName, SfxMusic.class, parameters);
+			requested = true;
+		}
+	}
+
+	/** @return whether the music is loaded, requesting it if needed */
+	public boolean isLoaded() {
+		return resolve(false) != null;
+	}
+
+	/** Unload the music, stopping it. Has no effect if not loaded or requested. */
+	public void unload() {
+		SfxMusic music = this.music;
+		if (music != null) {
+			// Keep effects, and out of the pool
+			for (int i = 0, n = effects.size; i < n; i++) {
+				SfxMusicEffect effect = effects.get(i);
+				Pool pool = effect.getPool();
+				effect.setPool(null);
+				music.removeEffect(effect);
+				effect.setPool(pool);
+			}
+			music.setOnCompletionListener(null);
+			music.stop();
+			this.music = null;
+		}
+		if (requested) {
+			requested = false;
+			manager.unload(fileName);
+		}
+		paused = false;
+	}
+
+	/**
+	 * Get the actual music, loading it if needed.
+	 * 
+	 * @param wait
+	 *            whether to block until loaded, rather than only requesting it
+	 * @return null if not loaded yet
+	 */
+	private SfxMusic resolve(boolean wait) {
+		if (music != null)
+			return music;
+
+		load();
+		if (wait)
+			manager.finishLoadingAsset(fileName);
+		else if (!manager.isLoaded(fileName, SfxMusic.class))
+			return null;
+
+		SfxMusic music = manager.get(fileName, SfxMusic.class);
+		duration = music.getDuration();
+		music.setLooping(looping);
+		music.setPan(pan, volume);
+		if (position > 0f)
+			music.setPosition(position);
+		music.setOnCompletionListener(listener);
+		for (int i = 0, n = effects.size; i < n; i++)
+			music.addEffect(effects.get(i));
+		this.music = music;
+		return music;
+	}
+
+	@Override
+	public String getTitle() {
+		return title;
+	}
+
+	@Override
+	public float getDuration() {
+		return duration;
+	}
+
+	@Override
+	public void play() {
+		resolve(true).play();
+		paused = false;
+		position = 0f;
+	}
+
+	@Override
+	public void pause() {
+		if (music != null) {
+			music.pause();
+			paused = true;
+		}
+	}
+
+	/**
+	 * Stop the music. Unloading happens once effects are over, or at once if
+	 * there are none. A pending loading request gets cancelled.
+	 */
+	@Override
+	public void stop() {
+		SfxMusic music = this.music;
+		if (music != null) {
+			music.stop();
+			if (!music.isPlaying())
+				unload();
+		} else {
+			unload();
+		}
+		position = 0f;
+	}
+
+	@Override
+	public boolean isPlaying() {
+		return music != null && music.isPlaying();
+	}
+
+	@Override
+	public void setLooping(boolean isLooping) {
+		this.looping = isLooping;
+		if (music != null)
+			music.setLooping(isLooping);
+	}
+
+	@Override
+	public boolean isLooping() {
+		return looping;
+	}
+
+	@Override
+	public void setVolume(float volume) {
+		this.volume = volume;
+		if (music != null)
+			music.setVolume(volume);
+	}
+
+	@Override
+	public float getVolume() {
+		return music == null ? volume : music.getVolume();
+	}
+
+	@Override
+	public float getPan() {
+		return pan;
+	}
+
+	@Override
+	public void setPan(float pan, float volume) {
+		this.pan = pan;
+		this.volume = volume;
+		if (music != null)
+			music.setPan(pan, volume);
+	}
+
+	@Override
+	public void setPosition(float position) {
+		if (music == null)
+			this.position = position;
+		else
+			music.setPosition(position);
+	}
+
+	@Override
+	public float getPosition() {
+		return music == null ? position : music.getPosition();
+	}
+
+	@Override
+	public void setOnCompletionListener(OnCompletionListener listener) {
+		this.listener = listener;
+		if (music != null)
+			music.setOnCompletionListener(listener);
+	}
+
+	@Override
+	public Array<SfxMusicEffect> getEffects() {
+		return effects;
+	}
+
+	@Override
+	public boolean hasEffects() {
+		return effects.size > 0;
+	}
+
+	@Override
+	public void addEffect(SfxMusicEffect effect) {
+		if (effects.contains(effect, true))
+			return;
+		effects.add(effect);
+		if (music != null)
+			music.addEffect(effect);
+	}
+
+	@Override
+	public void removeEffect(SfxMusicEffect effect) {
+		if (effects.removeValue(effect, true)) {
+			if (music != null)
+				music.removeEffect(effect);
+			else
+				effect.setMusic(null);
+		}
+	}
+
+	@Override
+	public void clearEffects() {
+		for (int i = effects.size - 1; i >= 0; i--)
+			removeEffect(effects.get(i));
+	}
+
+	@Override
+	public boolean update(float deltaTime) {
+		if (music == null)
+			return true;
+		if (music.update(deltaTime)) {
+			// Over, unless merely paused
+			if (!paused)
+				unload();
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void dispose() {
+		clearEffects();
+		unload();
+	}
+
+	@Override
+	public String toString() {
+		return title + " [" + getPosition() + "/" + duration + "] (SfxLazyMusic" + (music == null ? ")" : ", loaded)");
+	}
+
+}
@@ -24,18 +24,62 @@
 package games.spooky.gdx.sfx;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
 
 @SuppressWarnings("rawtypes")
 public class SfxMusicPlaylist implements SfxMusic {
 
+	/** Order in which musics get played */
+	public enum ShuffleMode {
+		/** Content order */
+		NONE,
+		/** Every music once per round, in random order */
+		BAG,
+		/** Random picks according to music weights, never running out */
+		WEIGHTED
+	}
+
+	/** What the playlist knows about a music of its content */
+	private static class Entry {
+		int count; // Occurrences in content
+		int position; // Of an occurrence in content, may be outdated
+		float weight = 1f;
+	}
+
 	private final Array<SfxMusicEffect> effects = new Array<SfxMusicEffect>(0);
 
 	private final Array<SfxMusic> content = new Array<SfxMusic>();
+	private final IdentityMap<SfxMusic, Entry> entries = new IdentityMap<SfxMusic, Entry>();
 	
 	private SfxMusic current = null;
-	private int index = -1;
+	private int index = -1; // Position of current music in content
+
+	private ShuffleMode shuffleMode = ShuffleMode.NONE;
+	private int noRepeatWindow = 0;
+
+	// Musics left to play this round, next one last (BAG)
+	private final Array<SfxMusic> bag = new Array<SfxMusic>();
+	// Next pick (WEIGHTED)
+	private SfxMusic planned = null;
+	// Last played musics, current one last (shuffled modes)
+	private final Array<SfxMusic> history = new Array<SfxMusic>();
+
+	// Next music, already started and paused so that its stream is buffered
+	private SfxMusic upcoming = null;
+	// Next music, still loading before it can be prepared (lazy musics)
+	private SfxMusic pending = null;
+	private float lookAhead = 0f;
+
+	// Previous music, fading out while current one fades in
+	private SfxMusic outgoing = null;
+	private FadeOut outgoingFade = null;
+	private FadeIn incomingFade = null;
+	private float crossfade = 0f;
 
 	private OnCompletionListener listener = null;
 
@@ -49,10 +93,20 @@ public class SfxMusicPlaylist implements SfxMusic {
 
 	private boolean repeat = false;
 
+	private SfxMetrics metrics;
+
+	private final SfxFrameStats stats = new SfxFrameStats();
+
+	// Counters since last metrics report
+	private int setVolumeCalls = 0;
+	private int setPanCalls = 0;
+	private int failedPlays = 0;
+
 	public SfxMusicPlaylist() {
 		super();
 	}
 
+	/** Don't modify the returned array, use {@link #addMusic(SfxMusic)}, {@link #removeMusic(SfxMusic)} or {@link #setContent(Array)} so that changes get tracked. */
 	public Array<SfxMusic> getContent() {
 		return content;
 	}
@@ -67,24 +121,55 @@ public class SfxMusicPlaylist implements SfxMusic {
 
 	public void addMusic(SfxMusic music) {
 		content.add(music);
+		track(music).position = content.size - 1;
+
+		// Join current round, at a random place
+		if (shuffleMode == ShuffleMode.BAG && index >= 0) {
+			bag.add(music);
+			bag.swap(bag.size - 1, MathUtils.random(bag.size - 1));
+		}
+	}
+
+	/**
+	 * Add a music only loaded while needed, see {@link SfxLazyMusic}. Use
+	 * {@link #setLookAhead(float)} so that it gets loaded in the background
+	 * before being played.
+	 * 
+	 * @param parameters
+	 *            loading parameters, may be null
+	 */
+	public SfxLazyMusic addMusic(AssetManager manager, String fileName, SfxMusicLoader.MusicParameters parameters) {
+		SfxLazyMusic music = new SfxLazyMusic(manager, fileName, parameters);
+		addMusic(music);
+		return music;
 	}
 
-	public void containsMusic(SfxMusic music) {
-		content.contains(music, true);
+	public boolean containsMusic(SfxMusic music) {
+		return entries.containsKey(music);
 	}
 
+	/** Remove an occurrence of given music, moving on to the next one if it was playing. */
 	public boolean removeMusic(SfxMusic music) {
-		int i = content.indexOf(music, true);
+		int i = indexOf(music);
 		if (i >= 0) {
 			content.removeIndex(i);
+			untrack(music);
+			if (music == upcoming || music == pending)
+				discardUpcoming();
+			if (music == planned)
+				planned = null;
+			// Bag and history get rid of it lazily
 
 			if (i < index) {
 				index--;
 			} else if (i == index) {
-				if (content.size == 0)
+				if (content.size == 0) {
 					stop();
-				else
+				} else {
+					// Next music took its place
+					index--;
 					next();
+				}
 			}
 
 			return true;
@@ -95,7 +180,10 @@ public class SfxMusicPlaylist implements SfxMusic {
 
 	public void clearContent() {
 		stop();
+		discardUpcoming();
 		content.clear();
+		entries.clear();
+		history.clear();
 	}
 
 	public void setContent(Array<SfxMusic> playlist) {
@@ -114,6 +202,57 @@ public class SfxMusicPlaylist implements SfxMusic {
 				content.addAll(playlist);
 				this.index = newIndex;
 			}
+			retrack();
+			restartRound();
+		}
+	}
+
+	/**
+	 * Get the position of an occurrence of given music in content, -1 if
+	 * missing. Positions are refreshed lazily after content gets shifted.
+	 */
+	private int indexOf(SfxMusic music) {
+		Entry entry = entries.get(music);
+		if (entry == null)
+			return -1;
+		int position = entry.position;
+		if (position < content.size && content.get(position) == music)
+			return position;
+
+		// Outdated, refresh all, first occurrences winning
+		Array<SfxMusic> content = this.content;
+		for (int i = content.size - 1; i >= 0; i--)
+			entries.get(content.get(i)).position = i;
+		return entry.position;
+	}
+
+	private Entry track(SfxMusic music) {
+		Entry entry = entries.get(music);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(music, entry);
+		}
+		entry.count++;
+		return entry;
+	}
+
+	private void untrack(SfxMusic music) {
+		Entry entry = entries.get(music);
+		if (entry != null && --entry.count <= 0)
+			entries.remove(music);
+	}
+
+	/** Rebuild entries from content, keeping weights of musics still there. */
+	private void retrack() {
+		for (Entry entry : entries.values())
+			entry.count = 0;
+		Array<SfxMusic> content = this.content;
+		for (int i = content.size - 1; i >= 0; i--)
+			track(content.get(i)).position = i;
+		IdentityMap.Values<Entry> values = entries.values();
+		while (values.hasNext()) {
+			if (values.next().count == 0)
+				values.remove();
 		}
 	}
 
@@ -136,8 +275,61 @@ public class SfxMusicPlaylist implements SfxMusic {
 		return duration;
 	}
 
+	/**
+	 * Shuffle content once. Music currently played, if any, is moved first so
+	 * that all others follow. See {@link #setShuffleMode(ShuffleMode)} to keep
+	 * content order while playing in random order.
+	 */
 	public void shuffle() {
 		content.shuffle();
+		int i = indexOf(current);
+		if (index >= 0 && i >= 0) {
+			content.swap(i, 0);
+			index = 0;
+		}
+		discardUpcoming();
+	}
+
+	public ShuffleMode getShuffleMode() {
+		return shuffleMode;
+	}
+
+	/** Set the order in which musics get played. Music currently played, if any, goes on. */
+	public void setShuffleMode(ShuffleMode shuffleMode) {
+		this.shuffleMode = shuffleMode;
+		restartRound();
+	}
+
+	public int getNoRepeatWindow() {
+		return noRepeatWindow;
+	}
+
+	/**
+	 * Set how many of the last played musics can't be picked again in
+	 * {@link ShuffleMode#WEIGHTED} mode (unless there is nothing else to
+	 * pick). Defaults to 0, 1 avoiding playing the same music twice in a row.
+	 */
+	public void setNoRepeatWindow(int noRepeatWindow) {
+		this.noRepeatWindow = Math.max(0, noRepeatWindow);
+		planned = null;
+		discardUpcoming();
+	}
+
+	/** @return weight of given music, 0 if not in this playlist */
+	public float getWeight(SfxMusic music) {
+		Entry entry = entries.get(music);
+		return entry == null ? 0f : entry.weight;
+	}
+
+	/**
+	 * Set how likely given music is to be picked in
+	 * {@link ShuffleMode#WEIGHTED} mode, relative to others. Defaults to 1.
+	 * Has no effect if given music isn't in this playlist.
+	 */
+	public void setWeight(SfxMusic music, float weight) {
+		Entry entry = entries.get(music);
+		if (entry != null)
+			entry.weight = Math.max(0f, weight);
 	}
 
 	@Override
@@ -158,6 +350,8 @@ public class SfxMusicPlaylist implements SfxMusic {
 			pause = false;
 			if (current != null)
 				current.play();
+			if (outgoing != null)
+				outgoing.play();
 		} else {
 			// We were stopped, start playing
 			next();
@@ -179,7 +373,10 @@ public class SfxMusicPlaylist implements SfxMusic {
 		play = false;
 
 		// Pause current music
-		getCurrentlyPlayed().pause();
+		if (current != null)
+			current.pause();
+		if (outgoing != null)
+			outgoing.pause();
 	}
 
 	public boolean isPaused() {
@@ -196,14 +393,17 @@ public class SfxMusicPlaylist implements SfxMusic {
 		// Stop current music
 		if (current != null)
 			current.stop();
+		releaseOutgoing(true);
+		discardUpcoming();
 
 		// Reset index
 		resetIndex();
 	}
 
+	/** Tell whether this playlist starts over once done. Always the case in {@link ShuffleMode#WEIGHTED} mode, which never runs out. */
 	@Override
 	public boolean isLooping() {
-		return repeat;
+		return repeat || shuffleMode == ShuffleMode.WEIGHTED;
 	}
 
 	@Override
@@ -219,8 +419,10 @@ public class SfxMusicPlaylist implements SfxMusic {
 	public void setVolume(float volume) {
 		this.volume = volume;
 		SfxMusic current = getCurrentlyPlayed();
-		if (current != null)
+		if (current != null) {
 			current.setVolume(volume);
+			setVolumeCalls++;
+		}
 	}
 
 	public float getPan() {
@@ -230,16 +432,20 @@ public class SfxMusicPlaylist implements SfxMusic {
 	public void setPan(float pan) {
 		this.pan = pan;
 		SfxMusic current = getCurrentlyPlayed();
-		if (current != null)
+		if (current != null) {
 			current.setPan(pan, volume);
+			setPanCalls++;
+		}
 	}
 
 	@Override
 	public void setPan(float pan, float volume) {
 		this.pan = pan;
 		SfxMusic current = getCurrentlyPlayed();
-		if (current != null)
+		if (current != null) {
 			current.setPan(pan, volume);
+			setPanCalls++;
+		}
 	}
 
 	@Override
@@ -247,9 +453,34 @@ public class SfxMusicPlaylist implements SfxMusic {
 		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * Get the time played so far in the current pass through content, so that
+	 * {@link #getDuration()} minus position is the time left until this
+	 * playlist is over, for playlists nested in another one. Musics still to
+	 * come are those left in content order, or in the current round in
+	 * {@link ShuffleMode#BAG} mode; only current music counts in
+	 * {@link ShuffleMode#WEIGHTED} mode, which never runs out.
+	 */
 	@Override
 	public float getPosition() {
-		throw new UnsupportedOperationException();
+		SfxMusic current = this.current;
+		if (current == null || index < 0)
+			return 0f;
+
+		float remaining = Math.max(0f, current.getDuration() - current.getPosition());
+		if (shuffleMode == ShuffleMode.BAG) {
+			Array<SfxMusic> bag = this.bag;
+			for (int i = 0, n = bag.size; i < n; i++) {
+				SfxMusic music = bag.get(i);
+				if (containsMusic(music))
+					remaining += music.getDuration();
+			}
+		} else if (shuffleMode == ShuffleMode.NONE) {
+			Array<SfxMusic> content = this.content;
+			for (int i = index + 1, n = content.size; i < n; i++)
+				remaining += content.get(i).getDuration();
+		}
+		return Math.max(0f, getDuration() - remaining);
 	}
 
 	public Array<SfxMusicEffect> getEffects() {
@@ -285,9 +516,76 @@ public class SfxMusicPlaylist implements SfxMusic {
 		effects.clear();
 	}
 
+	public float getLookAhead() {
+		return lookAhead;
+	}
+
+	/**
+	 * Set how long (in seconds) before the end of current music the next one
+	 * gets opened and buffered, so that it starts without gap right when
+	 * current one ends. A {@link SfxLazyMusic} gets loaded then as well.
+	 * Defaults to 0, i.e. next music is only opened when needed. Has no effect
+	 * on looping musics.
+	 */
+	public void setLookAhead(float lookAhead) {
+		this.lookAhead = lookAhead;
+		if (lookAhead <= 0f)
+			discardUpcoming();
+	}
+
+	public float getCrossfade() {
+		return crossfade;
+	}
+
+	/**
+	 * Set how long (in seconds) consecutive musics overlap, the next one
+	 * fading in while the previous one fades out. Also applies to
+	 * {@link #next()} and {@link #previous()}. Defaults to 0, i.e. no
+	 * overlap.
+	 */
+	public void setCrossfade(float crossfade) {
+		this.crossfade = crossfade;
+	}
+
+	public SfxMetrics getMetrics() {
+		return metrics;
+	}
+
+	/** Set where to report statistics of each {@link #update(float)} to, null for none. */
+	public void setMetrics(SfxMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	@Override
 	public boolean update(float deltaTime) {
+		if (metrics == null)
+			return doUpdate(deltaTime);
+
+		long start = TimeUtils.nanoTime();
+		boolean over = doUpdate(deltaTime);
+
+		SfxFrameStats stats = this.stats;
+		stats.reset();
+		stats.activeVoices = current != null && current.isPlaying() ? 1 : 0;
+		if (outgoing != null && outgoing.isPlaying())
+			stats.activeVoices++;
+		stats.setVolumeCalls = setVolumeCalls;
+		stats.setPanCalls = setPanCalls;
+		stats.failedPlays = failedPlays;
+		stats.updateNanos = TimeUtils.nanoTime() - start;
+		metrics.report(this, stats);
+
+		setVolumeCalls = 0;
+		setPanCalls = 0;
+		failedPlays = 0;
+		return over;
+	}
+
+	private boolean doUpdate(float deltaTime) {
 		if (play) {
+			if (outgoing != null && outgoing.update(deltaTime))
+				releaseOutgoing(false);
+
 			if (current == null || current.update(deltaTime)) {
 				if (stopPending) {
 					// Stop effectively
@@ -297,9 +595,18 @@ public class SfxMusicPlaylist implements SfxMusic {
 				} else {
 					next();
 				}
+			} else if ((lookAhead > 0f || crossfade > 0f) && !stopPending && !current.isLooping()) {
+				float remaining = current.getDuration() - current.getPosition();
+				if (upcoming == null && lookAhead > 0f && remaining <= crossfade + lookAhead)
+					prepare(peekNextMusic());
+				if (remaining <= crossfade) {
+					// Don't wait for the backend to notice, next music is ready
+					SfxMusic next = upcoming != null ? upcoming : peekNextMusic();
+					if (next != null && next != current)
+						next();
+				}
 			}
 
-			
 			return false;
 		} else {
 			return true;
@@ -314,8 +621,18 @@ public class SfxMusicPlaylist implements SfxMusic {
 		transition(previousMusic());
 	}
 
+	/** Stop playing, and unload all musics added through {@link #addMusic(AssetManager, String, SfxMusicLoader.MusicParameters)}. */
 	@Override
 	public void dispose() {
+		stop();
+		releaseOutgoing(true);
+		discardUpcoming();
+		Array<SfxMusic> content = this.content;
+		for (int i = 0, n = content.size; i < n; i++) {
+			SfxMusic music = content.get(i);
+			if (music instanceof SfxLazyMusic)
+				((SfxLazyMusic) music).unload();
+		}
 	}
 
 	public OnCompletionListener getOnCompletionListener() {
@@ -329,25 +646,207 @@ public class SfxMusicPlaylist implements SfxMusic {
 
 	private void resetIndex() {
 		index = -1;
+		bag.clear();
+		planned = null;
+	}
+
+	/** Forget what was planned to be played next, after order changed. */
+	private void restartRound() {
+		bag.clear();
+		planned = null;
+		discardUpcoming();
+		if (shuffleMode == ShuffleMode.BAG && index >= 0) {
+			// Current music is part of this round already
+			fillBag();
+			bag.removeValue(current, true);
+		}
+	}
+
+	private void fillBag() {
+		bag.addAll(content);
+		bag.shuffle();
+		// Don't play the same music twice in a row
+		if (bag.size > 1 && bag.peek() == current)
+			bag.swap(bag.size - 1, 0);
+	}
+
+	private void remember(SfxMusic music) {
+		Array<SfxMusic> history = this.history;
+		history.add(music);
+		// Enough to go back once, or to check the no-repeat window
+		if (history.size > Math.max(noRepeatWindow, 1) + 1)
+			history.removeIndex(0);
+	}
+
+	private boolean isRecent(SfxMusic music) {
+		Array<SfxMusic> history = this.history;
+		for (int i = history.size - 1, n = Math.max(0, history.size - noRepeatWindow); i >= n; i--) {
+			if (history.get(i) == music)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Pick a music at random according to weights.
+	 * 
+	 * @param window
+	 *            whether to leave recently played musics out
+	 * @return null if there is nothing to pick
+	 */
+	private SfxMusic pick(boolean window) {
+		Array<SfxMusic> content = this.content;
+		float total = 0f;
+		for (int i = 0, n = content.size; i < n; i++) {
+			SfxMusic music = content.get(i);
+			if (!window || !isRecent(music))
+				total += entries.get(music).weight;
+		}
+		if (total <= 0f)
+			return null;
+
+		float target = MathUtils.random() * total;
+		SfxMusic picked = null;
+		for (int i = 0, n = content.size; i < n; i++) {
+			SfxMusic music = content.get(i);
+			if (window && isRecent(music))
+				continue;
+			float weight = entries.get(music).weight;
+			if (weight <= 0f)
+				continue;
+			picked = music;
+			target -= weight;
+			if (target < 0f)
+				break;
+		}
+		return picked;
+	}
+
+	/** Get the music to play next in shuffled modes, without moving forward. */
+	private SfxMusic peekShuffled() {
+		if (shuffleMode == ShuffleMode.BAG) {
+			Array<SfxMusic> bag = this.bag;
+			while (bag.size > 0 && !containsMusic(bag.peek()))
+				bag.pop();
+			if (bag.size == 0 && (index < 0 || repeat))
+				fillBag();
+			return bag.size > 0 ? bag.peek() : null;
+		} else {
+			if (planned == null || !containsMusic(planned)) {
+				planned = pick(true);
+				if (planned == null)
+					planned = pick(false);
+			}
+			return planned;
+		}
 	}
 
 	private void tryPlay(SfxMusic music) {
+		boolean crossfading = false;
 		if (current != null) {
 			removeEffectsFromMusic(current);
-			current.stop();
+			if (incomingFade != null) {
+				current.removeEffect(incomingFade);
+				incomingFade = null;
+			}
+			crossfading = crossfade > 0f && current != music && current.isPlaying();
+			if (crossfading)
+				fadeOut(current);
+			else
+				current.stop();
 		}
+		boolean prepared = music == upcoming;
+		if (music == pending)
+			pending = null; // Loading goes on, played as soon as loaded
+		if (!prepared)
+			discardUpcoming();
+		upcoming = null;
 		addEffectsToMusic(music);
+		if (prepared) {
+			// Resuming music won't restart effects by itself
+			for (int i = 0, n = effects.size; i < n; i++)
+				effects.get(i).restart();
+		}
 		music.setPan(pan, volume);
+		setPanCalls++;
+		if (crossfading) {
+			incomingFade = Effects.fadeIn(crossfade);
+			music.addEffect(incomingFade);
+		}
 		music.play();
 		if (music.isPlaying()) {
 			current = music;
+			if (crossfading)
+				music.update(0f); // Silence it right away
 		} else {
 			removeEffectsFromMusic(music);
+			if (crossfading) {
+				music.removeEffect(incomingFade);
+				incomingFade = null;
+				current = null;
+			}
+			failedPlays++;
 			
 			Gdx.app.debug("gdx-sfx", "Unable to actually play " + music);
 		}
 	}
 
+	/** Start then pause given music at zero volume, so that it is ready to play at once. */
+	private void prepare(SfxMusic music) {
+		if (music == null || music == current)
+			return;
+		if (music != pending)
+			releasePending();
+		if (music instanceof SfxLazyMusic && !((SfxLazyMusic) music).isLoaded()) {
+			pending = music; // Loading, try again later
+			return;
+		}
+		pending = null;
+		music.setVolume(0f);
+		setVolumeCalls++;
+		music.play();
+		music.pause();
+		upcoming = music;
+	}
+
+	/** Fade given music out until its end (at most crossfade duration), then stop it. */
+	private void fadeOut(SfxMusic music) {
+		releaseOutgoing(true);
+
+		float remaining = music.getDuration() - music.getPosition();
+		outgoingFade = Effects.fadeOut(remaining > 0f ? Math.min(crossfade, remaining) : crossfade);
+		music.addEffect(outgoingFade);
+		music.stop();
+		outgoing = music;
+	}
+
+	private void releaseOutgoing(boolean stop) {
+		if (outgoing != null) {
+			outgoing.removeEffect(outgoingFade);
+			if (stop)
+				outgoing.stop();
+			outgoing = null;
+			outgoingFade = null;
+		}
+	}
+
+	private void discardUpcoming() {
+		releasePending();
+		if (upcoming != null) {
+			upcoming.stop();
+			upcoming = null;
+		}
+	}
+
+	/** Cancel loading of the next music, which won't be prepared after all. */
+	private void releasePending() {
+		if (pending != null) {
+			if (pending != current)
+				pending.stop();
+			pending = null;
+		}
+	}
+
 	private void addEffectsToMusic(SfxMusic music) {
 		for (int i = 0, n = effects.size; i < n; i++)
 			music.addEffect(effects.get(i));
@@ -359,6 +858,7 @@ public class SfxMusicPlaylist implements SfxMusic {
 			
 			// Save from brutal pool-freeing
 			Pool pool = effect.getPool();
+			effect.setPool(null);
 			music.removeEffect(effect);
 			effect.setPool(pool);
 		}
@@ -373,6 +873,21 @@ public class SfxMusicPlaylist implements SfxMusic {
 	}
 
 	private SfxMusic nextMusic() {
+		if (shuffleMode != ShuffleMode.NONE) {
+			SfxMusic music = peekShuffled();
+			if (music == null) {
+				resetIndex();
+				return null;
+			}
+			if (shuffleMode == ShuffleMode.BAG)
+				bag.pop();
+			else
+				planned = null;
+			index = indexOf(music);
+			remember(music);
+			return music;
+		}
+
 		index++;
 		if (index >= content.size) {
 			resetIndex();
@@ -386,7 +901,38 @@ public class SfxMusicPlaylist implements SfxMusic {
 		return content.get(index);
 	}
 
+	/** Same as {@link #nextMusic()}, without moving forward. */
+	private SfxMusic peekNextMusic() {
+		if (shuffleMode != ShuffleMode.NONE)
+			return peekShuffled();
+
+		int next = index + 1;
+		if (next >= content.size) {
+			if (!repeat || content.size == 0)
+				return null;
+			next = 0;
+		}
+		return content.get(next);
+	}
+
 	private SfxMusic previousMusic() {
+		if (shuffleMode != ShuffleMode.NONE) {
+			// Back to the music played before current one
+			Array<SfxMusic> history = this.history;
+			if (history.size > 0)
+				history.pop();
+			while (history.size > 0 && !containsMusic(history.peek()))
+				history.pop();
+			if (history.size == 0) {
+				resetIndex();
+				return null;
+			}
+			SfxMusic music = history.peek();
+			index = indexOf(music);
+			planned = null;
+			return music;
+		}
+
 		index--;
 		if (index < 0) {
 			resetIndex();
@@ -28,6 +28,9 @@ import com.badlogic.gdx.utils.Array;
 
 public class SfxMusicWrapper implements SfxMusic {
 
+	/** Drift beyond which position is corrected at once, in seconds */
+	private static final float SNAP_THRESHOLD = 0.25f;
+
 	private final Music wrapped;
 
 	private final String title;
@@ -37,6 +40,12 @@ public class SfxMusicWrapper implements SfxMusic {
 
 	private float position = 0f;
 
+	// Resynchronization with the backend position, see resync()
+	private float syncInterval = 1f;
+	private float sinceSync = 0f;
+	private float pendingCorrection = 0f;
+	private float correctionRate = 0f;
+
 	private boolean paused = false;
 	private boolean stopPending = false;
 
@@ -68,6 +77,7 @@ public class SfxMusicWrapper implements SfxMusic {
 			paused = false;
 		} else {
 			position = 0f;
+			resetSync();
 			Array<SfxMusicEffect> effects = this.effects;
 			for (int i = 0, n = effects.size ; i < n ; i++) {
 				SfxMusicEffect effect = effects.get(i);
@@ -99,6 +109,7 @@ public class SfxMusicWrapper implements SfxMusic {
 	
 	private void doStop() {
 		wrapped.stop();
+		paused = false;
 		if (listener != null)
 			listener.onCompletion(this);
 	}
@@ -149,6 +160,26 @@ public class SfxMusicWrapper implements SfxMusic {
 	public void setPosition(float position) {
 		wrapped.setPosition(position);
 		this.position = position;
+		resetSync();
+	}
+
+	public float getSyncInterval() {
+		return syncInterval;
+	}
+
+	/**
+	 * Set how often (in seconds of playback) position gets checked against the
+	 * backend's. Position is advanced by frame time in between, small drifts
+	 * being corrected smoothly until next check (never making position go
+	 * backwards) and large ones (hitches) at once. Defaults to 1 second;
+	 * {@link Float#POSITIVE_INFINITY} to rely on frame time only.
+	 * 
+	 * @throws IllegalArgumentException if given interval isn't positive
+	 */
+	public void setSyncInterval(float syncInterval) {
+		if (!(syncInterval > 0f))
+			throw new IllegalArgumentException("Sync interval must be positive: " + syncInterval);
+		this.syncInterval = syncInterval;
 	}
 
 	@Override
@@ -186,6 +217,21 @@ public class SfxMusicWrapper implements SfxMusic {
 	public boolean update(float deltaTime) {
 		if (isPlaying()) {
 			this.position += deltaTime;
+
+			// Catch up with the backend position
+			if (pendingCorrection != 0f) {
+				float correction = correctionRate * deltaTime;
+				if (Math.abs(correction) >= Math.abs(pendingCorrection))
+					correction = pendingCorrection;
+				// Slow down at most to a halt, position must not go backwards
+				if (correction < -deltaTime)
+					correction = -deltaTime;
+				this.position += correction;
+				pendingCorrection -= correction;
+			}
+			sinceSync += deltaTime;
+			if (sinceSync >= syncInterval)
+				resync();
 			
 			// Apply effects
 			boolean effectsOver = true;
@@ -220,6 +266,46 @@ public class SfxMusicWrapper implements SfxMusic {
 		}
 	}
 
+	/** Compare position with the backend's, and schedule correction of the drift. */
+	private void resync() {
+		sinceSync = 0f;
+
+		float drift = wrapped.getPosition() - (position + pendingCorrection);
+
+		// Either side may have looped already
+		float duration = this.duration;
+		if (isLooping() && duration > 0f) {
+			if (drift > duration / 2f)
+				drift -= duration;
+			else if (drift < -duration / 2f)
+				drift += duration;
+		}
+
+		if (Math.abs(drift) >= SNAP_THRESHOLD) {
+			float snapped = position + pendingCorrection + drift;
+			if (isLooping() && duration > 0f) {
+				// Folded drift may take us across the loop point
+				snapped %= duration;
+				if (snapped < 0f)
+					snapped += duration;
+			} else if (snapped < 0f) {
+				snapped = 0f;
+			}
+			position = snapped;
+			pendingCorrection = 0f;
+			correctionRate = 0f;
+		} else {
+			pendingCorrection += drift;
+			correctionRate = pendingCorrection / syncInterval;
+		}
+	}
+
+	private void resetSync() {
+		sinceSync = 0f;
+		pendingCorrection = 0f;
+		correctionRate = 0f;
+	}
+
 	@Override
 	public void dispose() {
 		clearEffects();
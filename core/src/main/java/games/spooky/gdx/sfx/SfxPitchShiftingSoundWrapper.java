@@ -23,50 +23,67 @@
  */
 package games.spooky.gdx.sfx;
 
+import java.util.Arrays;
+
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.MathUtils;
 
 public class SfxPitchShiftingSoundWrapper extends SfxSoundWrapper {
 
+	/** How many recent instances keep their pitch shift, see {@link #setPitch(long, float)} */
+	private static final int REMEMBERED = 64;
+
 	private final float minPitch;
 	private final float maxPitch;
 
+	// Pitch shifts picked for the most recent instances, ring buffer
+	private final long[] soundIds = new long[REMEMBERED];
+	private final float[] shifts = new float[REMEMBERED];
+	private int next = 0;
+
 	public SfxPitchShiftingSoundWrapper(Sound wrappedSound, String title, float duration, float pitchRange) {
 		super(wrappedSound, title, duration);
 		float half = pitchRange / 2f;
 		this.minPitch = 1f - half;
 		this.maxPitch = 1f + half;
+		Arrays.fill(soundIds, -1L);
 	}
 
 	public SfxPitchShiftingSoundWrapper(Sound wrappedSound, String title, float duration, float minPitch, float maxPitch) {
 		super(wrappedSound, title, duration);
 		this.minPitch = minPitch;
 		this.maxPitch = maxPitch;
+		Arrays.fill(soundIds, -1L);
 	}
 
 	@Override
 	public long play() {
-		return super.play(1f, randomPitchShift(), 0f);
+		float shift = randomPitchShift();
+		return remember(super.play(1f, shift, 0f), shift);
 	}
 
 	@Override
 	public long play(float volume) {
-		return super.play(volume, randomPitchShift(), 0f);
+		float shift = randomPitchShift();
+		return remember(super.play(volume, shift, 0f), shift);
 	}
 
 	@Override
 	public long play(float volume, float pitch, float pan) {
-		return super.play(volume, pitch * randomPitchShift(), pan);
+		float shift = randomPitchShift();
+		return remember(super.play(volume, pitch * shift, pan), shift);
 	}
 
 	@Override
 	public long loop() {
-		return super.loop(1f, randomPitchShift(), 0f);
+		float shift = randomPitchShift();
+		return remember(super.loop(1f, shift, 0f), shift);
 	}
 
 	@Override
 	public long loop(float volume) {
-		return super.loop(volume, randomPitchShift(), 0f);
+		float shift = randomPitchShift();
+		return remember(super.loop(volume, shift, 0f), shift);
 	}
 
 	@Override
@@ -74,9 +91,35 @@ public class SfxPitchShiftingSoundWrapper extends SfxSoundWrapper {
 		return super.loop(volume, pitch, pan);
 	}
 
+	/**
+	 * Change pitch of given instance, keeping the shift it was played with so
+	 * that repeated changes (e.g. Doppler effect) don't make it warble.
+	 * Instances played without shift, or too long ago, are left unshifted.
+	 */
 	@Override
 	public void setPitch(long soundId, float pitch) {
-		super.setPitch(soundId, pitch * randomPitchShift());
+		super.setPitch(soundId, pitch * shiftOf(soundId));
+	}
+
+	private long remember(long soundId, float shift) {
+		if (soundId != -1L) {
+			soundIds[next] = soundId;
+			shifts[next] = shift;
+			next = (next + 1) % REMEMBERED;
+		}
+		return soundId;
+	}
+
+	private float shiftOf(long soundId) {
+		if (soundId != -1L) {
+			// Most recent first, in case the backend reuses ids
+			for (int i = 1; i <= REMEMBERED; i++) {
+				int index = (next - i + REMEMBERED) % REMEMBERED;
+				if (soundIds[index] == soundId)
+					return shifts[index];
+			}
+		}
+		return 1f;
 	}
 
 	private float randomPitchShift() {
@@ -91,10 +91,21 @@ public class SfxSoundLoader
 		if (pitchRange > 1f)
 			pitchRange = 1f;
 		
+		SfxSound result;
 		if (pitchRange <= 0f)
-			return new SfxSoundWrapper(sound, title, duration);
+			result = new SfxSoundWrapper(sound, title, duration);
 		else
-			return new SfxPitchShiftingSoundWrapper(sound, title, duration, pitchRange);
+			result = new SfxPitchShiftingSoundWrapper(sound, title, duration, pitchRange);
+
+		// throttling
+		if (parameter != null && (parameter.maxInstances > 0 || parameter.minInterval > 0f)) {
+			SfxThrottlingSoundWrapper.Policy policy = parameter.throttlingPolicy;
+			if (policy == null)
+				policy = SfxThrottlingSoundWrapper.Policy.DROP;
+			result = new SfxThrottlingSoundWrapper(result, title, duration, parameter.maxInstances, parameter.minInterval, policy);
+		}
+
+		return result;
 	}
 
 	@Override
@@ -106,6 +117,11 @@ public class SfxSoundLoader
 		public String title = null;
 		public float duration = -1f;
 		public float pitchRange = 0f;
+		/** Maximum number of instances playing at once, 0 for no limit */
+		public int maxInstances = 0;
+		/** Minimum time (in seconds) between two starts */
+		public float minInterval = 0f;
+		public SfxThrottlingSoundWrapper.Policy throttlingPolicy = SfxThrottlingSoundWrapper.Policy.DROP;
 	}
 
 }
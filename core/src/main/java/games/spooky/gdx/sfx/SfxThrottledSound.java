@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+/**
+ * Sound enforcing limits of its own on top of the backend's, such as
+ * {@link SfxThrottlingSoundWrapper}: it may decline to play, or stop some of
+ * its instances to make room for new ones.
+ */
+public interface SfxThrottledSound extends SfxSound {
+
+	/** Tell whether the last play (or loop) was rejected by this sound rather than by the backend. */
+	boolean isThrottled();
+
+	/** Get told about instances this sound stops on its own. Adding the same listener twice has no effect. */
+	void addStopListener(StopListener listener);
+
+	void removeStopListener(StopListener listener);
+
+	interface StopListener {
+
+		/** Called when given sound stopped one of its instances on its own, e.g. to make room for a new one. */
+		void stopped(SfxThrottledSound sound, long soundId);
+
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Sound wrapper limiting how many instances of a sound play at once, and how
+ * often it can be (re)triggered. Any {@link Sound} can be wrapped, including
+ * other wrappers such as {@link SfxPitchShiftingSoundWrapper}.
+ * <p>
+ * Instances stopped by {@link Policy#STEAL_OLDEST} are reported to
+ * {@link SfxThrottledSound.StopListener stop listeners}, which spatialized
+ * sound players register themselves as.
+ */
+public class SfxThrottlingSoundWrapper extends SfxSoundWrapper implements SfxThrottledSound {
+
+	/** What to do when playing would exceed the maximum number of instances */
+	public enum Policy {
+		/** Don't play the new instance */
+		DROP,
+		/** Stop the oldest instance to make room for the new one */
+		STEAL_OLDEST
+	}
+
+	private final int maxInstances;
+	private final long minIntervalNanos;
+	private final Policy policy;
+
+	// Live instances, oldest first
+	private final LongArray ids = new LongArray(true, 4);
+	private final LongArray ends = new LongArray(true, 4);
+
+	private final Array<StopListener> stopListeners = new Array<StopListener>(false, 2);
+
+	private long lastStart = 0L;
+	private boolean started = false;
+	private boolean throttled = false;
+
+	/**
+	 * @param maxInstances
+	 *            maximum number of instances playing at once, 0 for no limit
+	 * @param minInterval
+	 *            minimum time (in seconds) between two starts, plays coming
+	 *            earlier are dropped
+	 */
+	public SfxThrottlingSoundWrapper(Sound wrappedSound, String title, float duration, int maxInstances, float minInterval, Policy policy) {
+		super(wrappedSound, title, duration);
+		this.maxInstances = maxInstances > 0 ? maxInstances : Integer.MAX_VALUE;
+		this.minIntervalNanos = (long) (minInterval * 1000000000L);
+		this.policy = policy;
+	}
+
+	public int getMaxInstances() {
+		return maxInstances;
+	}
+
+	public float getMinInterval() {
+		return minIntervalNanos / 1000000000f;
+	}
+
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/** Get the number of instances deemed playing right now. */
+	public int getInstanceCount() {
+		expire(TimeUtils.nanoTime());
+		return ids.size;
+	}
+
+	@Override
+	public boolean isThrottled() {
+		return throttled;
+	}
+
+	@Override
+	public void addStopListener(StopListener listener) {
+		if (!stopListeners.contains(listener, true))
+			stopListeners.add(listener);
+	}
+
+	@Override
+	public void removeStopListener(StopListener listener) {
+		stopListeners.removeValue(listener, true);
+	}
+
+	@Override
+	public long play() {
+		return play(1f, 1f, 0f);
+	}
+
+	@Override
+	public long play(float volume) {
+		return play(volume, 1f, 0f);
+	}
+
+	@Override
+	public long play(float volume, float pitch, float pan) {
+		long now = TimeUtils.nanoTime();
+		if (!admit(now))
+			return -1L;
+		long id = super.play(volume, pitch, pan);
+		track(id, now, now + (long) (getDuration() / pitch * 1000000000L));
+		return id;
+	}
+
+	@Override
+	public long loop() {
+		return loop(1f, 1f, 0f);
+	}
+
+	@Override
+	public long loop(float volume) {
+		return loop(volume, 1f, 0f);
+	}
+
+	@Override
+	public long loop(float volume, float pitch, float pan) {
+		long now = TimeUtils.nanoTime();
+		if (!admit(now))
+			return -1L;
+		long id = super.loop(volume, pitch, pan);
+		track(id, now, Long.MAX_VALUE);
+		return id;
+	}
+
+	@Override
+	public void stop() {
+		super.stop();
+		ids.clear();
+		ends.clear();
+	}
+
+	@Override
+	public void stop(long soundId) {
+		super.stop(soundId);
+		int index = ids.indexOf(soundId);
+		if (index >= 0) {
+			ids.removeIndex(index);
+			ends.removeIndex(index);
+		}
+	}
+
+	@Override
+	public void setLooping(long soundId, boolean looping) {
+		super.setLooping(soundId, looping);
+		// Can't tell where a looping instance stands, let it run its full length again
+		int index = ids.indexOf(soundId);
+		if (index >= 0)
+			ends.set(index, looping ? Long.MAX_VALUE : TimeUtils.nanoTime() + (long) (getDuration() * 1000000000L));
+	}
+
+	private boolean admit(long now) {
+		throttled = true;
+
+		if (started && now - lastStart < minIntervalNanos)
+			return false;
+
+		expire(now);
+		if (ids.size >= maxInstances) {
+			if (policy == Policy.DROP)
+				return false;
+			long stolen = ids.removeIndex(0);
+			ends.removeIndex(0);
+			super.stop(stolen);
+			for (int i = stopListeners.size - 1; i >= 0; i--)
+				stopListeners.get(i).stopped(this, stolen);
+		}
+
+		throttled = false;
+		return true;
+	}
+
+	private void track(long id, long now, long end) {
+		if (id == -1L)
+			return;
+		lastStart = now;
+		started = true;
+		ids.add(id);
+		ends.add(end);
+	}
+
+	/** Forget about instances that are over by now. */
+	private void expire(long now) {
+		LongArray ends = this.ends;
+		for (int i = ends.size - 1; i >= 0; i--) {
+			if (ends.get(i) <= now) {
+				ids.removeIndex(i);
+				ends.removeIndex(i);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getTitle() + " [" + getDuration() + "] (SfxThrottlingSoundWrapper)";
+	}
+
+}
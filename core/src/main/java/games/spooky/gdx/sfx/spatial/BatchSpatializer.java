@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Spatializer able to process many instances in one call, so that
+ * listener-dependent terms are computed once per frame rather than once per
+ * instance. {@link SpatializedSoundPlayer} uses it whenever available.
+ */
+public interface BatchSpatializer<T> extends Spatializer<T> {
+
+	/**
+	 * Apply spatialization to a range of sound instances
+	 * 
+	 * @param instances
+	 *            the instances to apply spatialization to
+	 * @param offset
+	 *            index of the first instance to spatialize
+	 * @param count
+	 *            number of instances to spatialize
+	 * @param nominalVolume
+	 *            the volume these sounds would be at without spatialization
+	 */
+	void spatialize(Array<SpatializedSound<T>> instances, int offset, int count, float nominalVolume);
+
+}
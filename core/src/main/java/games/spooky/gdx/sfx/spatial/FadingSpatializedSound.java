@@ -29,6 +29,7 @@ public class FadingSpatializedSound<T> extends SpatializedSound<T> {
 	private float fadeTime;
 	private float fadeProgress = -1;
 	private boolean fadeIn;
+	private boolean fadeInOnStart;
 	private float realVolume;
 
 	private boolean stop = false;
@@ -40,15 +41,26 @@ public class FadingSpatializedSound<T> extends SpatializedSound<T> {
 		fadeProgress = -1;
 		stop = false;
 		fadeIn = false;
+		fadeInOnStart = false;
 		realVolume = 0;
 	}
 
 	public long initialize(Sound sound, boolean looping, float duration, T position, float volume, float pitch, float panning, float intrinsicVolume, float fadeTime, boolean fadeIn) {
-		long id = super.initialize(sound, looping, duration, position, volume, pitch, panning, intrinsicVolume);
+		setFade(fadeTime, fadeIn);
+		return initialize(sound, looping, duration, position, volume, pitch, panning, intrinsicVolume);
+	}
 
+	/** Fade settings applied by the next {@link #initialize(Sound, boolean, float, Object, float, float, float, float)}. */
+	public void setFade(float fadeTime, boolean fadeIn) {
 		this.fadeTime = fadeTime;
+		this.fadeInOnStart = fadeIn;
+	}
+
+	@Override
+	public long initialize(Sound sound, boolean looping, float duration, T position, float volume, float pitch, float panning, float intrinsicVolume) {
+		long id = super.initialize(sound, looping, duration, position, volume, pitch, panning, intrinsicVolume);
 
-		if (fadeIn) {
+		if (fadeInOnStart) {
 			fadeIn();
 		}
 
@@ -97,6 +109,8 @@ public class FadingSpatializedSound<T> extends SpatializedSound<T> {
 			if (fadeProgress >= fadeTime) {
 				fadeProgress = -1;
 				setVolume(fadeIn ? realVolume : 0);
+				// Listener or emitter may have moved in the meantime
+				invalidateSpatialization();
 
 				if (!fadeIn) {
 					if (stop) {
@@ -123,8 +137,13 @@ public class FadingSpatializedSound<T> extends SpatializedSound<T> {
 	public void resume() {
 		super.resume();
 		if (fadeTime > 0) {
+			// Back to the volume it faded out from, if it did
+			float target = realVolume;
 			fadeIn();
+			if (realVolume == 0)
+				realVolume = target;
 		}
+		invalidateSpatialization();
 	}
 
 	public void pause() {
@@ -133,6 +152,7 @@ public class FadingSpatializedSound<T> extends SpatializedSound<T> {
 		} else {
 			super.pause();
 		}
+		invalidateSpatialization();
 	}
 
 	public void fadeIn() {
@@ -140,11 +160,13 @@ public class FadingSpatializedSound<T> extends SpatializedSound<T> {
 		setVolume(0);
 		fadeIn = true;
 		fadeProgress = 0;
+		invalidateSpatialization();
 	}
 
 	public void fadeOut() {
 		realVolume = getVolume();
 		fadeIn = false;
 		fadeProgress = 0;
+		invalidateSpatialization();
 	}
 }
@@ -23,15 +23,20 @@
  */
 package games.spooky.gdx.sfx.spatial;
 
-import java.util.Iterator;
-
-import com.badlogic.gdx.Gdx;
-
 import games.spooky.gdx.sfx.SfxSound;
 
 public class FadingSpatializedSoundPlayer<T> extends SpatializedSoundPlayer<T> {
 	private float fadeTime = 0f;
 
+	public FadingSpatializedSoundPlayer() {
+		super();
+	}
+
+	/** @see SpatializedSoundPlayer#SpatializedSoundPlayer(int) */
+	public FadingSpatializedSoundPlayer(int capacity) {
+		super(capacity);
+	}
+
 	public void setFadeTime(float fadeTime) {
 		this.fadeTime = fadeTime;
 	}
@@ -50,46 +55,46 @@ public class FadingSpatializedSoundPlayer<T> extends SpatializedSoundPlayer<T> {
 	}
 
 	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, boolean fadeIn) {
-		FadingSpatializedSound<T> instance = (FadingSpatializedSound<T>) pool.obtain();
-
-		float duration = sound.getDuration();
-
-		long id = instance.initialize(sound, looping, duration, position, 0f, pitch, 0f,	intrinsicVolume, fadeTime, fadeIn);
+		return play(position, sound, intrinsicVolume, pitch, looping, fadeIn, 0);
+	}
 
-		if (id == -1) {
-			pool.free(instance);
-			Gdx.app.error("gdx-sfx", "Couldn't play sound " + sound);
-		} else {
-			instance.setLooping(looping);
-			spatializer.spatialize(instance, this.volume);
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, boolean fadeIn, int priority) {
+		return play(position, sound, intrinsicVolume, pitch, looping, fadeIn, priority, null);
+	}
 
-			sounds.put(id, instance);
-		}
+	/**
+	 * @param priority sounds with lower priority get stolen first when running out of voices
+	 * @param group group to play the sound in, may be null
+	 * @return a handle to the sound, see {@link SpatializedSoundPlayer#play(Object, SfxSound, float, float, boolean, int, SoundGroup)}
+	 */
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, boolean fadeIn, int priority, SoundGroup group) {
+		if (!admit(sound, priority, group))
+			return -1L;
 
-		return id;
+		FadingSpatializedSound<T> instance = (FadingSpatializedSound<T>) pool.obtain();
+		instance.setFade(fadeTime, fadeIn);
+		return play(instance, position, sound, intrinsicVolume, pitch, looping, priority, group);
 	}
 
 	@Override
-	public void update(float delta) {
-		Iterator<SpatializedSound<T>> iterator = sounds.values();
-		while (iterator.hasNext()) {
-			SpatializedSound<T> instance = iterator.next();
-
-			if (instance.update(delta)) {
-				iterator.remove();
-				pool.free(instance);
-			} else if (!((FadingSpatializedSound<T>) instance).isFading()) {
-				spatializer.spatialize(instance, this.volume);
-			}
-		}
+	protected boolean needsSpatialization(SpatializedSound<T> instance) {
+		// Fading instances handle their own volume
+		return !((FadingSpatializedSound<T>) instance).isFading() && super.needsSpatialization(instance);
 	}
-	
+
 	@Override
-	public void stop(long id) {
-		SpatializedSound<T> sound = sounds.get(id);
+	protected int updateInterval(SpatializedSound<T> instance) {
+		// Fades have to stay smooth
+		if (((FadingSpatializedSound<T>) instance).isFading())
+			return 1;
+		return super.updateInterval(instance);
+	}
 
-		if (sound != null) {
-			sound.stop();
-		}
+	@Override
+	protected int updateVirtualization(SpatializedSound<T> instance, int realVoices) {
+		// Volume is meaningless while fading
+		if (((FadingSpatializedSound<T>) instance).isFading())
+			return 0;
+		return super.updateVirtualization(instance, realVoices);
 	}
 }
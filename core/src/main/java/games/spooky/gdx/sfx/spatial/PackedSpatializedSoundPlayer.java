@@ -0,0 +1,387 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+
+import games.spooky.gdx.sfx.SfxSound;
+import games.spooky.gdx.sfx.SfxThrottledSound;
+
+/**
+ * Alternative to {@link SpatializedSoundPlayer} for 2D positions, keeping all
+ * voice state in parallel primitive arrays instead of one pooled
+ * {@link SpatializedSound} per voice. Voices are kept dense (removal swaps
+ * the last voice in) so that {@link #update(float)} streams linearly through
+ * memory and nothing is allocated once arrays have grown large enough.
+ * <p>
+ * Positions are copied at play time, use {@link #setPosition(long, float, float)}
+ * to move an emitter afterwards. Sounds are referred to by handles decoding to
+ * their voice in constant time.
+ */
+public class PackedSpatializedSoundPlayer {
+
+	/** Drops voices whose throttled sound stole them */
+	private final SfxThrottledSound.StopListener stopListener = new SfxThrottledSound.StopListener() {
+		@Override
+		public void stopped(SfxThrottledSound sound, long soundId) {
+			for (int i = 0, n = size; i < n; i++) {
+				if (sounds[i] == sound && ids[i] == soundId) {
+					removeIndex(i);
+					return;
+				}
+			}
+		}
+	};
+
+	/** Throttled sounds {@link #stopListener} was added to */
+	private final Array<SfxThrottledSound> watched = new Array<SfxThrottledSound>(false, 4);
+
+	private Sound[] sounds;
+	private long[] ids;
+	private float[] elapsed;
+	private float[] durations;
+	private float[] volumes;
+	private float[] pans;
+	private float[] intrinsicVolumes;
+	private float[] x;
+	private float[] y;
+	private boolean[] looping;
+	private boolean[] running;
+
+	// Spatializer output
+	private float[] targetPans;
+	private float[] targetVolumes;
+
+	// Handles: generation in the high bits, slot in the low ones
+	private int[] slots; // By voice
+	private int[] indices; // Voice by slot, -1 for free slots
+	private int[] generations; // By slot, handles carrying an older one are stale
+	private int[] freeSlots;
+	private int freeSlotCount = 0;
+
+	private int size = 0;
+
+	private PackedSpatializer spatializer;
+
+	private float volume = 1f;
+
+	public PackedSpatializedSoundPlayer() {
+		this(16);
+	}
+
+	public PackedSpatializedSoundPlayer(int initialCapacity) {
+		resize(Math.max(1, initialCapacity));
+	}
+
+	public PackedSpatializer getSpatializer() {
+		return spatializer;
+	}
+
+	public void setSpatializer(PackedSpatializer spatializer) {
+		this.spatializer = spatializer;
+	}
+
+	public float getVolume() {
+		return volume;
+	}
+
+	public void setVolume(float volume) {
+		this.volume = volume;
+	}
+
+	/** Get the number of live voices. */
+	public int size() {
+		return size;
+	}
+
+	public long play(float x, float y, SfxSound sound) {
+		return play(x, y, sound, 1f, 1f, false);
+	}
+
+	public long play(float x, float y, SfxSound sound, float pitch, boolean looping) {
+		return play(x, y, sound, 1f, pitch, looping);
+	}
+
+	/**
+	 * @param intrinsicVolume intrinsic volume of this sound, set at init, and multiples all subsequent volumes
+	 * @return a handle to the sound for this player's methods (not a backend sound id), or -1 if it could not be played
+	 */
+	public long play(float x, float y, SfxSound sound, float intrinsicVolume, float pitch, boolean looping) {
+		if (sound instanceof SfxThrottledSound && !watched.contains((SfxThrottledSound) sound, true)) {
+			((SfxThrottledSound) sound).addStopListener(stopListener);
+			watched.add((SfxThrottledSound) sound);
+		}
+
+		long id = looping ? sound.loop(0f, pitch, 0f) : sound.play(0f, pitch, 0f);
+
+		if (id == -1) {
+			if (SpatializedSoundPlayer.isThrottled(sound))
+				Gdx.app.debug("gdx-sfx", "Throttled sound " + sound);
+			else
+				Gdx.app.error("gdx-sfx", "Couldn't play sound " + sound);
+			return id;
+		}
+
+		if (size == ids.length)
+			resize(Math.max(8, (int) (size * 1.75f)));
+
+		int i = size++;
+		this.sounds[i] = sound;
+		this.ids[i] = id;
+		this.elapsed[i] = 0f;
+		this.durations[i] = sound.getDuration();
+		this.volumes[i] = 0f;
+		this.pans[i] = 0f;
+		this.intrinsicVolumes[i] = intrinsicVolume;
+		this.x[i] = x;
+		this.y[i] = y;
+		this.looping[i] = looping;
+		this.running[i] = true;
+
+		spatializer.spatialize(this.x, this.y, targetPans, targetVolumes, i, 1, this.volume);
+		apply(i, i + 1);
+
+		int slot = freeSlots[--freeSlotCount];
+		slots[i] = slot;
+		indices[slot] = i;
+		return ((long) generations[slot] << 32) | slot;
+	}
+
+	public void setPosition(long handle, float x, float y) {
+		int i = indexOf(handle);
+
+		if (i >= 0) {
+			this.x[i] = x;
+			this.y[i] = y;
+		}
+	}
+
+	public void update(float delta) {
+		// Advance time, dropping voices that are over
+		float[] elapsed = this.elapsed;
+		float[] durations = this.durations;
+		boolean[] running = this.running;
+		boolean[] looping = this.looping;
+		for (int i = size - 1; i >= 0; i--) {
+			if (running[i])
+				elapsed[i] += delta;
+
+			float duration = durations[i];
+			if (elapsed[i] >= duration) {
+				if (looping[i]) {
+					elapsed[i] -= duration;
+				} else {
+					removeIndex(i);
+				}
+			}
+		}
+
+		int size = this.size;
+		if (size > 0) {
+			spatializer.spatialize(x, y, targetPans, targetVolumes, 0, size, this.volume);
+			apply(0, size);
+		}
+	}
+
+	/** Stop all sounds, letting go of the sounds played so far. */
+	public void stop() {
+		Array<SfxThrottledSound> watched = this.watched;
+		for (int i = 0, n = watched.size; i < n; i++)
+			watched.get(i).removeStopListener(stopListener);
+		watched.clear();
+
+		Sound[] sounds = this.sounds;
+		long[] ids = this.ids;
+		for (int i = 0, n = size; i < n; i++) {
+			sounds[i].stop(ids[i]);
+			sounds[i] = null;
+			releaseSlot(slots[i]);
+		}
+		size = 0;
+	}
+
+	/** Stop all sounds, for good. */
+	public void dispose() {
+		stop();
+	}
+
+	public void stop(long handle) {
+		int i = indexOf(handle);
+
+		if (i >= 0) {
+			removeIndex(i);
+		}
+	}
+
+	public void pause(long handle) {
+		int i = indexOf(handle);
+
+		if (i >= 0) {
+			sounds[i].pause(ids[i]);
+			running[i] = false;
+		}
+	}
+
+	public void resume(long handle) {
+		int i = indexOf(handle);
+
+		if (i >= 0) {
+			sounds[i].resume(ids[i]);
+			running[i] = true;
+		}
+	}
+
+	/** Tell whether given handle still refers to a playing (possibly paused) sound. */
+	public boolean isPlaying(long handle) {
+		return indexOf(handle) >= 0;
+	}
+
+	/** Push spatializer output to the backend, for voices that actually changed. */
+	private void apply(int start, int end) {
+		Sound[] sounds = this.sounds;
+		long[] ids = this.ids;
+		float[] volumes = this.volumes;
+		float[] pans = this.pans;
+		float[] intrinsicVolumes = this.intrinsicVolumes;
+		float[] targetPans = this.targetPans;
+		float[] targetVolumes = this.targetVolumes;
+		for (int i = start; i < end; i++) {
+			float pan = targetPans[i];
+			float effectiveVolume = targetVolumes[i] * intrinsicVolumes[i];
+			if (pans[i] != pan || volumes[i] != effectiveVolume) {
+				pans[i] = pan;
+				volumes[i] = effectiveVolume;
+				sounds[i].setPan(ids[i], pan, effectiveVolume);
+			}
+		}
+	}
+
+	/** @return the voice given handle refers to, -1 if stale */
+	private int indexOf(long handle) {
+		if (handle < 0L)
+			return -1;
+		int slot = (int) handle;
+		if (slot >= generations.length || generations[slot] != (int) (handle >>> 32))
+			return -1;
+		return indices[slot];
+	}
+
+	private void releaseSlot(int slot) {
+		indices[slot] = -1;
+		// Wrapping keeps handles positive
+		int generation = generations[slot] + 1;
+		generations[slot] = generation > 0 ? generation : 1;
+		freeSlots[freeSlotCount++] = slot;
+	}
+
+	/** Stop voice at given index and move the last voice into its place. */
+	private void removeIndex(int i) {
+		sounds[i].stop(ids[i]);
+		releaseSlot(slots[i]);
+
+		int last = --size;
+		if (i != last) {
+			sounds[i] = sounds[last];
+			ids[i] = ids[last];
+			elapsed[i] = elapsed[last];
+			durations[i] = durations[last];
+			volumes[i] = volumes[last];
+			pans[i] = pans[last];
+			intrinsicVolumes[i] = intrinsicVolumes[last];
+			x[i] = x[last];
+			y[i] = y[last];
+			looping[i] = looping[last];
+			running[i] = running[last];
+			slots[i] = slots[last];
+			indices[slots[i]] = i;
+		}
+		sounds[last] = null;
+	}
+
+	private void resize(int capacity) {
+		int size = this.size;
+		Sound[] sounds = new Sound[capacity];
+		if (this.sounds != null)
+			System.arraycopy(this.sounds, 0, sounds, 0, size);
+		this.sounds = sounds;
+		this.ids = resize(this.ids, capacity);
+		this.elapsed = resize(this.elapsed, capacity);
+		this.durations = resize(this.durations, capacity);
+		this.volumes = resize(this.volumes, capacity);
+		this.pans = resize(this.pans, capacity);
+		this.intrinsicVolumes = resize(this.intrinsicVolumes, capacity);
+		this.x = resize(this.x, capacity);
+		this.y = resize(this.y, capacity);
+		this.looping = resize(this.looping, capacity);
+		this.running = resize(this.running, capacity);
+		this.targetPans = new float[capacity];
+		this.targetVolumes = new float[capacity];
+
+		// As many slots as voices, new ones being free
+		int slotCount = this.generations == null ? 0 : this.generations.length;
+		this.slots = resize(this.slots, capacity);
+		this.indices = copyOf(this.indices, slotCount, capacity);
+		this.generations = copyOf(this.generations, slotCount, capacity);
+		this.freeSlots = copyOf(this.freeSlots, freeSlotCount, capacity);
+		for (int slot = capacity - 1; slot >= slotCount; slot--) {
+			indices[slot] = -1;
+			generations[slot] = 1;
+			freeSlots[freeSlotCount++] = slot;
+		}
+	}
+
+	private int[] resize(int[] array, int capacity) {
+		return copyOf(array, size, capacity);
+	}
+
+	private static int[] copyOf(int[] array, int length, int capacity) {
+		int[] newArray = new int[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, newArray, 0, length);
+		return newArray;
+	}
+
+	private long[] resize(long[] array, int capacity) {
+		long[] newArray = new long[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, newArray, 0, size);
+		return newArray;
+	}
+
+	private float[] resize(float[] array, int capacity) {
+		float[] newArray = new float[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, newArray, 0, size);
+		return newArray;
+	}
+
+	private boolean[] resize(boolean[] array, int capacity) {
+		boolean[] newArray = new boolean[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, newArray, 0, size);
+		return newArray;
+	}
+}
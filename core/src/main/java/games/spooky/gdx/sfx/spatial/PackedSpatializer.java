@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+/**
+ * Spatializer working on packed (structure-of-arrays) voices, as used by
+ * {@link PackedSpatializedSoundPlayer}.
+ */
+public interface PackedSpatializer {
+
+	/**
+	 * Apply spatialization to a range of packed voices
+	 * 
+	 * @param x
+	 *            horizontal positions of the voices
+	 * @param y
+	 *            vertical positions of the voices
+	 * @param pans
+	 *            output array, receives the panning of each voice
+	 * @param volumes
+	 *            output array, receives the volume of each voice
+	 * @param offset
+	 *            index of the first voice to spatialize
+	 * @param count
+	 *            number of voices to spatialize
+	 * @param nominalVolume
+	 *            the volume these sounds would be at without spatialization
+	 */
+	void spatialize(float[] x, float[] y, float[] pans, float[] volumes, int offset, int count, float nominalVolume);
+
+}
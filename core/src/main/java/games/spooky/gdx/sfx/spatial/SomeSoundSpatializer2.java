@@ -26,12 +26,25 @@ package games.spooky.gdx.sfx.spatial;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 
-public class SomeSoundSpatializer2 implements Spatializer<Vector2> {
+public class SomeSoundSpatializer2 implements BatchSpatializer<Vector2>, TrackingSpatializer<Vector2>, PackedSpatializer {
+
+	private static final float EPSILON = 0.01f;
+
+	// Pitch range supported by backends
+	private static final float MIN_PITCH = 0.5f;
+	private static final float MAX_PITCH = 2f;
 
 	private float horizontalRange;
 	private float verticalRange;
 	private final Vector3 center = new Vector3();
+
+	private final Vector2 velocity = new Vector2();
+	private float dopplerFactor = 0f;
+	private float speedOfSound = 343f;
+
+	private int revision = 0;
 	
 	public float getHorizontalRange() {
 		return horizontalRange;
@@ -41,6 +54,7 @@ public class SomeSoundSpatializer2 implements Spatializer<Vector2> {
 		if (this.horizontalRange == horizontalRange)
 			return;
 		this.horizontalRange = horizontalRange;
+		revision++;
 	}
 
 	public float getVerticalRange() {
@@ -51,22 +65,79 @@ public class SomeSoundSpatializer2 implements Spatializer<Vector2> {
 		if (this.verticalRange == verticalRange)
 			return;
 		this.verticalRange = verticalRange;
+		revision++;
 	}
 
+	/** Don't modify the returned vector, use {@link #setCenter(Vector3)} so that changes get tracked. */
 	public Vector3 getCenter() {
 		return center;
 	}
 
 	public void setCenter(float x, float y, float z) {
-		if (this.center.epsilonEquals(x, y, z, 0.01f))
+		if (this.center.epsilonEquals(x, y, z, EPSILON))
 			return;
 		this.center.set(x, y, z);
+		revision++;
 	}
 
 	public void setCenter(Vector3 center) {
-		if (this.center.epsilonEquals(center, 0.01f))
+		if (this.center.epsilonEquals(center, EPSILON))
 			return;
 		this.center.set(center);
+		revision++;
+	}
+
+	/** Don't modify the returned vector, use {@link #setVelocity(float, float)} so that changes get tracked. */
+	public Vector2 getVelocity() {
+		return velocity;
+	}
+
+	/** Set listener velocity, for Doppler effect. */
+	public void setVelocity(float x, float y) {
+		if (this.velocity.epsilonEquals(x, y, EPSILON))
+			return;
+		this.velocity.set(x, y);
+		revision++;
+	}
+
+	public float getDopplerFactor() {
+		return dopplerFactor;
+	}
+
+	/** Set how strong the Doppler effect is, 1 being realistic. Defaults to 0, i.e. no Doppler effect. */
+	public void setDopplerFactor(float dopplerFactor) {
+		if (this.dopplerFactor == dopplerFactor)
+			return;
+		this.dopplerFactor = dopplerFactor;
+		revision++;
+	}
+
+	public float getSpeedOfSound() {
+		return speedOfSound;
+	}
+
+	/** Set the speed of sound in world units per second, for Doppler effect. Defaults to 343. */
+	public void setSpeedOfSound(float speedOfSound) {
+		if (this.speedOfSound == speedOfSound)
+			return;
+		this.speedOfSound = speedOfSound;
+		revision++;
+	}
+
+	@Override
+	public int getRevision() {
+		return revision;
+	}
+
+	@Override
+	public boolean hasMoved(SpatializedSound<Vector2> instance) {
+		Vector2 position = instance.getPosition();
+		if (!instance.isStampedAt(position.x, position.y, 0f, EPSILON))
+			return true;
+
+		// Velocity vectors may be changed in place, only Doppler cares
+		Vector2 velocity = instance.getVelocity();
+		return dopplerFactor > 0f && velocity != null && !instance.isStampedWithVelocity(velocity.x, velocity.y, 0f, EPSILON);
 	}
 
 	@Override
@@ -96,6 +167,93 @@ public class SomeSoundSpatializer2 implements Spatializer<Vector2> {
 		// Result
 		float volume = nominalVolume * hRatio * vRatio;
 		instance.setPan(MathUtils.clamp(panning, -1f, 1f), MathUtils.clamp(volume, 0f, 1f));
+		instance.setDoppler(dopplerFactor > 0f ? doppler(x - centerX, y - centerY, instance.getVelocity()) : 1f);
+		instance.setListenerDistance2(dst2);
+		stamp(instance, x, y);
+	}
+
+	@Override
+	public void spatialize(Array<SpatializedSound<Vector2>> instances, int offset, int count, float nominalVolume) {
+		float centerX = center.x;
+		float centerY = center.y;
+
+		// Listener-only terms, computed once for the whole range
+		float range2 = horizontalRange * horizontalRange;
+		float invRange = 1f / horizontalRange;
+
+		float vRatio = 1f - MathUtils.clamp(center.z / verticalRange, 0f, 1f);
+		float volumeFactor = nominalVolume * vRatio * vRatio * vRatio;
+
+		boolean dopplerEnabled = dopplerFactor > 0f;
+
+		for (int i = offset, n = offset + count; i < n; i++) {
+			SpatializedSound<Vector2> instance = instances.get(i);
+			Vector2 position = instance.getPosition();
+			float dx = position.x - centerX;
+			float dy = position.y - centerY;
+
+			// Horizontal attenuation
+			float dst2 = dx * dx + dy * dy;
+			float hRatio = 1f - MathUtils.clamp(dst2 / range2, 0f, 1f);
+
+			instance.setPan(MathUtils.clamp(dx * invRange, -1f, 1f), MathUtils.clamp(volumeFactor * hRatio, 0f, 1f));
+			instance.setDoppler(dopplerEnabled ? doppler(dx, dy, instance.getVelocity()) : 1f);
+			instance.setListenerDistance2(dst2);
+			stamp(instance, position.x, position.y);
+		}
+	}
+
+	private static void stamp(SpatializedSound<Vector2> instance, float x, float y) {
+		instance.stampPosition(x, y, 0f);
+		Vector2 velocity = instance.getVelocity();
+		if (velocity != null)
+			instance.stampVelocity(velocity.x, velocity.y, 0f);
+	}
+
+	@Override
+	public void spatialize(float[] x, float[] y, float[] pans, float[] volumes, int offset, int count, float nominalVolume) {
+		float centerX = center.x;
+		float centerY = center.y;
+
+		// Listener-only terms, computed once for the whole range
+		float range2 = horizontalRange * horizontalRange;
+		float invRange = 1f / horizontalRange;
+
+		float vRatio = 1f - MathUtils.clamp(center.z / verticalRange, 0f, 1f);
+		float volumeFactor = nominalVolume * vRatio * vRatio * vRatio;
+
+		for (int i = offset, n = offset + count; i < n; i++) {
+			float dx = x[i] - centerX;
+			float dy = y[i] - centerY;
+
+			// Horizontal attenuation
+			float hRatio = 1f - MathUtils.clamp((dx * dx + dy * dy) / range2, 0f, 1f);
+
+			pans[i] = MathUtils.clamp(dx * invRange, -1f, 1f);
+			volumes[i] = MathUtils.clamp(volumeFactor * hRatio, 0f, 1f);
+		}
+	}
+
+	/**
+	 * Compute the Doppler pitch factor of an emitter standing at (dx, dy) from
+	 * the listener, OpenAL style.
+	 */
+	private float doppler(float dx, float dy, Vector2 emitterVelocity) {
+		float distance = (float) Math.sqrt(dx * dx + dy * dy);
+		if (distance == 0f)
+			return 1f;
+
+		// Listener speed towards the emitter, emitter speed away from the listener
+		float listenerSpeed = (dx * velocity.x + dy * velocity.y) / distance;
+		float emitterSpeed = emitterVelocity == null ? 0f : (dx * emitterVelocity.x + dy * emitterVelocity.y) / distance;
+
+		// Speeds can't exceed the speed of sound
+		float limit = speedOfSound / dopplerFactor;
+		float numerator = speedOfSound + dopplerFactor * Math.max(listenerSpeed, -limit);
+		float denominator = speedOfSound + dopplerFactor * Math.max(emitterSpeed, -limit);
+		if (denominator <= 0f)
+			return MAX_PITCH;
+		return MathUtils.clamp(numerator / denominator, MIN_PITCH, MAX_PITCH);
 	}
 
 }
@@ -0,0 +1,288 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Uniform grid {@link SpatialIndex} for {@link SomeSoundSpatializer2}. Cells
+ * are hashed, so the grid is unbounded and only costs memory where there are
+ * sounds. Cell size should be in the order of the horizontal range.
+ * <p>
+ * Sounds of a cell are linked together, and only non-empty cells are stored,
+ * so storage only depends on the number of live sounds: sized for as many as
+ * the player's capacity, the grid never allocates.
+ */
+public class SoundGrid2 implements SpatialIndex<Vector2> {
+
+	private static final long NO_CELL = Long.MIN_VALUE;
+
+	private final SomeSoundSpatializer2 spatializer;
+	private final float cellSize;
+
+	// Non-empty cells, open addressing with linear probing: key of each cell
+	// (NO_CELL if free), and first sound of its list
+	private long[] keys;
+	private SpatializedSound<Vector2>[] heads;
+	private int mask;
+	private int cellCount = 0;
+
+	// Cells covered by previous query
+	private int previousMinX, previousMinY, previousMaxX, previousMaxY;
+	private boolean queried = false;
+
+	public SoundGrid2(SomeSoundSpatializer2 spatializer, float cellSize) {
+		this(spatializer, cellSize, 16);
+	}
+
+	/**
+	 * @param capacity
+	 *            number of live sounds to allocate storage for upfront,
+	 *            usually the player's {@link SpatializedSoundPlayer#getCapacity() capacity}
+	 */
+	public SoundGrid2(SomeSoundSpatializer2 spatializer, float cellSize, int capacity) {
+		this.spatializer = spatializer;
+		this.cellSize = cellSize;
+		// At most one cell per sound, table kept at most half full
+		allocate(MathUtils.nextPowerOfTwo(Math.max(8, Math.min(capacity, 1 << 29)) * 2));
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	@Override
+	public void update(SpatializedSound<Vector2> instance) {
+		Vector2 position = instance.getPosition();
+		long cell = cell(cellX(position.x), cellY(position.y));
+		long previous = instance.getIndexKey();
+		if (cell == previous)
+			return;
+
+		if (previous != NO_CELL)
+			unlink(instance, previous);
+		link(instance, cell);
+		instance.setIndexKey(cell);
+	}
+
+	@Override
+	public void remove(SpatializedSound<Vector2> instance) {
+		long cell = instance.getIndexKey();
+		if (cell == NO_CELL)
+			return;
+
+		unlink(instance, cell);
+		instance.setIndexKey(NO_CELL);
+	}
+
+	@Override
+	public void clear() {
+		long[] keys = this.keys;
+		SpatializedSound<Vector2>[] heads = this.heads;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == NO_CELL)
+				continue;
+			SpatializedSound<Vector2> instance = heads[i];
+			while (instance != null) {
+				SpatializedSound<Vector2> next = instance.indexNext;
+				instance.indexPrevious = null;
+				instance.indexNext = null;
+				instance.setIndexKey(NO_CELL);
+				instance = next;
+			}
+			keys[i] = NO_CELL;
+			heads[i] = null;
+		}
+		cellCount = 0;
+		queried = false;
+	}
+
+	@Override
+	public void query(Array<SpatializedSound<Vector2>> out) {
+		Vector3 center = spatializer.getCenter();
+		float range = spatializer.getHorizontalRange();
+
+		int minX = cellX(center.x - range);
+		int minY = cellY(center.y - range);
+		int maxX = cellX(center.x + range);
+		int maxY = cellY(center.y + range);
+
+		if (!queried) {
+			// Unknown previous state, everything might be audible
+			long[] keys = this.keys;
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != NO_CELL)
+					collect(heads[i], out);
+			}
+		} else {
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++)
+					collect(x, y, out);
+			}
+
+			// Cells only covered last time
+			for (int x = previousMinX; x <= previousMaxX; x++) {
+				for (int y = previousMinY; y <= previousMaxY; y++) {
+					if (x < minX || x > maxX || y < minY || y > maxY)
+						collect(x, y, out);
+				}
+			}
+		}
+
+		previousMinX = minX;
+		previousMinY = minY;
+		previousMaxX = maxX;
+		previousMaxY = maxY;
+		queried = true;
+	}
+
+	private void collect(int x, int y, Array<SpatializedSound<Vector2>> out) {
+		long cell = cell(x, y);
+		int slot = slot(cell);
+		if (keys[slot] == cell)
+			collect(heads[slot], out);
+	}
+
+	private static void collect(SpatializedSound<Vector2> instance, Array<SpatializedSound<Vector2>> out) {
+		for (; instance != null; instance = instance.indexNext)
+			out.add(instance);
+	}
+
+	private void link(SpatializedSound<Vector2> instance, long cell) {
+		int slot = slot(cell);
+		if (keys[slot] != cell) {
+			if ((cellCount + 1) * 2 > keys.length) {
+				// More sounds than planned for
+				resize(keys.length * 2);
+				slot = slot(cell);
+			}
+			keys[slot] = cell;
+			cellCount++;
+		}
+
+		SpatializedSound<Vector2> head = heads[slot];
+		instance.indexPrevious = null;
+		instance.indexNext = head;
+		if (head != null)
+			head.indexPrevious = instance;
+		heads[slot] = instance;
+	}
+
+	private void unlink(SpatializedSound<Vector2> instance, long cell) {
+		SpatializedSound<Vector2> previous = instance.indexPrevious;
+		SpatializedSound<Vector2> next = instance.indexNext;
+		if (next != null)
+			next.indexPrevious = previous;
+		if (previous != null) {
+			previous.indexNext = next;
+		} else {
+			int slot = slot(cell);
+			heads[slot] = next;
+			// Empty cells go away, so that storage only depends on live sounds
+			if (next == null)
+				free(slot);
+		}
+		instance.indexPrevious = null;
+		instance.indexNext = null;
+	}
+
+	/** @return the slot of given cell, or the free slot it would go to */
+	private int slot(long cell) {
+		long[] keys = this.keys;
+		int mask = this.mask;
+		int slot = hash(cell) & mask;
+		while (keys[slot] != NO_CELL && keys[slot] != cell)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/** Free given slot, moving back following cells that would no longer be found. */
+	private void free(int slot) {
+		long[] keys = this.keys;
+		SpatializedSound<Vector2>[] heads = this.heads;
+		int mask = this.mask;
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			long key = keys[next];
+			if (key == NO_CELL)
+				break;
+			int home = hash(key) & mask;
+			// Cells whose home lies (cyclically) after the freed slot can stay
+			if (slot <= next ? slot < home && home <= next : slot < home || home <= next)
+				continue;
+			keys[slot] = key;
+			heads[slot] = heads[next];
+			slot = next;
+		}
+		keys[slot] = NO_CELL;
+		heads[slot] = null;
+		cellCount--;
+	}
+
+	private void resize(int size) {
+		long[] oldKeys = keys;
+		SpatializedSound<Vector2>[] oldHeads = heads;
+		allocate(size);
+		for (int i = 0; i < oldKeys.length; i++) {
+			long cell = oldKeys[i];
+			if (cell != NO_CELL) {
+				int slot = slot(cell);
+				keys[slot] = cell;
+				heads[slot] = oldHeads[i];
+			}
+		}
+	}
+
+	private void allocate(int size) {
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = NO_CELL;
+		@SuppressWarnings("unchecked")
+		SpatializedSound<Vector2>[] heads = (SpatializedSound<Vector2>[]) new SpatializedSound<?>[size];
+		this.keys = keys;
+		this.heads = heads;
+		this.mask = size - 1;
+	}
+
+	private int cellX(float x) {
+		return (int) Math.floor(x / cellSize);
+	}
+
+	private int cellY(float y) {
+		return (int) Math.floor(y / cellSize);
+	}
+
+	private static long cell(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long cell) {
+		int hash = (int) (cell ^ (cell >>> 32)) * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
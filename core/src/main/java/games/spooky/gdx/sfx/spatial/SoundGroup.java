@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+/**
+ * Bus sharing a volume, pause state and ducking between the sounds played in
+ * it through a {@link SpatializedSoundPlayer} (e.g. sfx, ui, ambience, voice).
+ * A group belongs to the player it was first used with, playing it through
+ * another player throws an {@link IllegalStateException}.
+ */
+public class SoundGroup {
+
+	private final String name;
+
+	private float volume = 1f;
+
+	private boolean paused = false;
+
+	// Ducking: volume goes down to duckedVolume while trigger has sounds playing
+	private SoundGroup trigger;
+	private float duckedVolume = 1f;
+	private float duckingFadeTime = 0f;
+	private float duck = 1f;
+	private float duckTarget = 1f;
+	private float duckRate = 0f; // Per second, set whenever the target changes
+
+	/** Live voices in this group */
+	int voices = 0;
+
+	/** Player this group belongs to, null until first used */
+	SpatializedSoundPlayer<?> owner;
+
+	/** Position in the owning player's groups */
+	int index = -1;
+
+	public SoundGroup(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public float getVolume() {
+		return volume;
+	}
+
+	public void setVolume(float volume) {
+		this.volume = volume;
+	}
+
+	/** Volume actually applied to sounds of this group, ducking included. */
+	public float getEffectiveVolume() {
+		return volume * duck;
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	void setPaused(boolean paused) {
+		this.paused = paused;
+	}
+
+	/** Get the number of sounds currently playing (or paused) in this group. */
+	public int getVoiceCount() {
+		return voices;
+	}
+
+	public SoundGroup getDuckingTrigger() {
+		return trigger;
+	}
+
+	public float getDuckedVolume() {
+		return duckedVolume;
+	}
+
+	public float getDuckingFadeTime() {
+		return duckingFadeTime;
+	}
+
+	/**
+	 * Lower the volume of this group while sounds of another group are
+	 * playing, sidechain style.
+	 * 
+	 * @param trigger
+	 *            group whose playing sounds duck this one, null to disable
+	 * @param duckedVolume
+	 *            volume multiplier applied while ducked
+	 * @param fadeTime
+	 *            time (in seconds) to go from current to ducked volume and back
+	 */
+	public void setDucking(SoundGroup trigger, float duckedVolume, float fadeTime) {
+		this.trigger = trigger;
+		this.duckedVolume = duckedVolume;
+		this.duckingFadeTime = fadeTime;
+	}
+
+	public boolean isDucked() {
+		return duck < 1f;
+	}
+
+	/** Move ducking towards its target, called by the owning player. */
+	void update(float delta) {
+		SoundGroup trigger = this.trigger;
+		float target = trigger != null && trigger.voices > 0 && !trigger.paused ? duckedVolume : 1f;
+		float duck = this.duck;
+		if (duck == target)
+			return;
+
+		if (duckingFadeTime <= 0f) {
+			this.duck = target;
+		} else {
+			if (target != duckTarget) {
+				// Whole way to the new target takes the fade time, whatever its distance
+				duckTarget = target;
+				duckRate = Math.abs(target - duck) / duckingFadeTime;
+			}
+			float step = delta * duckRate;
+			this.duck = duck < target ? Math.min(duck + step, target) : Math.max(duck - step, target);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
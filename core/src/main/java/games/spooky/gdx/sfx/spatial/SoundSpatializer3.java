@@ -0,0 +1,315 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * 3D spatializer with OpenAL-like (clamped) distance attenuation models and
+ * an oriented listener, panning being derived from the listener's right
+ * vector.
+ */
+public class SoundSpatializer3 implements BatchSpatializer<Vector3>, TrackingSpatializer<Vector3> {
+
+	private static final float EPSILON = 0.01f;
+
+	/** Smallest minimum distance, which distance models divide by */
+	private static final float MIN_DISTANCE = 0.0001f;
+
+	// Pitch range supported by backends
+	private static final float MIN_PITCH = 0.5f;
+	private static final float MAX_PITCH = 2f;
+
+	public enum DistanceModel {
+		/** gain = min / (min + rolloff * (distance - min)) */
+		INVERSE,
+		/** gain = 1 - rolloff * (distance - min) / (max - min) */
+		LINEAR,
+		/** gain = (distance / min) ^ -rolloff */
+		EXPONENTIAL
+	}
+
+	private final Vector3 position = new Vector3();
+	private final Vector3 direction = new Vector3(0f, 0f, -1f);
+	private final Vector3 up = new Vector3(0f, 1f, 0f);
+
+	/** Derived from direction and up */
+	private final Vector3 right = new Vector3(1f, 0f, 0f);
+
+	private DistanceModel distanceModel = DistanceModel.INVERSE;
+	private float minDistance = 1f;
+	private float maxDistance = Float.MAX_VALUE;
+	private float rolloff = 1f;
+
+	private final Vector3 velocity = new Vector3();
+	private float dopplerFactor = 0f;
+	private float speedOfSound = 343f;
+
+	private int revision = 0;
+
+	public Vector3 getPosition() {
+		return position;
+	}
+
+	public void setPosition(float x, float y, float z) {
+		if (this.position.epsilonEquals(x, y, z, EPSILON))
+			return;
+		this.position.set(x, y, z);
+		revision++;
+	}
+
+	public void setPosition(Vector3 position) {
+		setPosition(position.x, position.y, position.z);
+	}
+
+	public Vector3 getDirection() {
+		return direction;
+	}
+
+	public Vector3 getUp() {
+		return up;
+	}
+
+	/**
+	 * Set listener orientation. Should direction and up be parallel, panning
+	 * keeps following the previous right vector as much as possible.
+	 * 
+	 * @param direction
+	 *            where the listener is looking
+	 * @param up
+	 *            up vector of the listener
+	 */
+	public void setOrientation(Vector3 direction, Vector3 up) {
+		if (this.direction.epsilonEquals(direction, 0.0001f) && this.up.epsilonEquals(up, 0.0001f))
+			return;
+		this.direction.set(direction).nor();
+		this.up.set(up).nor();
+
+		Vector3 right = this.right;
+		float previousX = right.x, previousY = right.y, previousZ = right.z;
+		right.set(this.direction).crs(this.up);
+		if (right.isZero(0.000001f)) {
+			// Degenerate orientation: previous right vector, made orthogonal to direction
+			Vector3 d = this.direction;
+			float dot = previousX * d.x + previousY * d.y + previousZ * d.z;
+			right.set(previousX - dot * d.x, previousY - dot * d.y, previousZ - dot * d.z);
+			if (right.isZero(0.000001f)) {
+				// Looking along the previous right vector too, any orthogonal one will do
+				right.set(d).crs(Math.abs(d.x) < 0.9f ? Vector3.X : Vector3.Z);
+			}
+		}
+		right.nor();
+		revision++;
+	}
+
+	public DistanceModel getDistanceModel() {
+		return distanceModel;
+	}
+
+	public void setDistanceModel(DistanceModel distanceModel) {
+		if (this.distanceModel == distanceModel)
+			return;
+		this.distanceModel = distanceModel;
+		revision++;
+	}
+
+	public float getMinDistance() {
+		return minDistance;
+	}
+
+	/** Set the distance under which no attenuation happens, at least a tiny positive one. */
+	public void setMinDistance(float minDistance) {
+		minDistance = Math.max(minDistance, MIN_DISTANCE);
+		if (this.minDistance == minDistance)
+			return;
+		this.minDistance = minDistance;
+		revision++;
+	}
+
+	public float getMaxDistance() {
+		return maxDistance;
+	}
+
+	/** Set the distance beyond which attenuation stops increasing (and reaches silence for the linear model). */
+	public void setMaxDistance(float maxDistance) {
+		if (this.maxDistance == maxDistance)
+			return;
+		this.maxDistance = maxDistance;
+		revision++;
+	}
+
+	public float getRolloff() {
+		return rolloff;
+	}
+
+	public void setRolloff(float rolloff) {
+		if (this.rolloff == rolloff)
+			return;
+		this.rolloff = rolloff;
+		revision++;
+	}
+
+	/** Don't modify the returned vector, use {@link #setVelocity(float, float, float)} so that changes get tracked. */
+	public Vector3 getVelocity() {
+		return velocity;
+	}
+
+	/** Set listener velocity, for Doppler effect. */
+	public void setVelocity(float x, float y, float z) {
+		if (this.velocity.epsilonEquals(x, y, z, EPSILON))
+			return;
+		this.velocity.set(x, y, z);
+		revision++;
+	}
+
+	public float getDopplerFactor() {
+		return dopplerFactor;
+	}
+
+	/** Set how strong the Doppler effect is, 1 being realistic. Defaults to 0, i.e. no Doppler effect. */
+	public void setDopplerFactor(float dopplerFactor) {
+		if (this.dopplerFactor == dopplerFactor)
+			return;
+		this.dopplerFactor = dopplerFactor;
+		revision++;
+	}
+
+	public float getSpeedOfSound() {
+		return speedOfSound;
+	}
+
+	/** Set the speed of sound in world units per second, for Doppler effect. Defaults to 343. */
+	public void setSpeedOfSound(float speedOfSound) {
+		if (this.speedOfSound == speedOfSound)
+			return;
+		this.speedOfSound = speedOfSound;
+		revision++;
+	}
+
+	@Override
+	public int getRevision() {
+		return revision;
+	}
+
+	@Override
+	public boolean hasMoved(SpatializedSound<Vector3> instance) {
+		Vector3 position = instance.getPosition();
+		if (!instance.isStampedAt(position.x, position.y, position.z, EPSILON))
+			return true;
+
+		// Velocity vectors may be changed in place, only Doppler cares
+		Vector3 velocity = instance.getVelocity();
+		return dopplerFactor > 0f && velocity != null
+				&& !instance.isStampedWithVelocity(velocity.x, velocity.y, velocity.z, EPSILON);
+	}
+
+	@Override
+	public void spatialize(SpatializedSound<Vector3> instance, float nominalVolume) {
+		spatialize(instance, nominalVolume, position.x, position.y, position.z, right.x, right.y, right.z);
+	}
+
+	@Override
+	public void spatialize(Array<SpatializedSound<Vector3>> instances, int offset, int count, float nominalVolume) {
+		// Listener snapshot
+		Vector3 position = this.position;
+		float listenerX = position.x;
+		float listenerY = position.y;
+		float listenerZ = position.z;
+		Vector3 right = this.right;
+		float rightX = right.x;
+		float rightY = right.y;
+		float rightZ = right.z;
+
+		for (int i = offset, n = offset + count; i < n; i++)
+			spatialize(instances.get(i), nominalVolume, listenerX, listenerY, listenerZ, rightX, rightY, rightZ);
+	}
+
+	private void spatialize(SpatializedSound<Vector3> instance, float nominalVolume, float listenerX, float listenerY,
+			float listenerZ, float rightX, float rightY, float rightZ) {
+		Vector3 position = instance.getPosition();
+		float x = position.x;
+		float y = position.y;
+		float z = position.z;
+
+		float dx = x - listenerX;
+		float dy = y - listenerY;
+		float dz = z - listenerZ;
+		float distance2 = dx * dx + dy * dy + dz * dz;
+		float distance = (float) Math.sqrt(distance2);
+
+		// Panning, projection of the normalized emitter direction on the listener's right
+		float panning = distance > 0f ? (dx * rightX + dy * rightY + dz * rightZ) / distance : 0f;
+
+		float volume = nominalVolume * attenuation(distance);
+		instance.setPan(MathUtils.clamp(panning, -1f, 1f), MathUtils.clamp(volume, 0f, 1f));
+		instance.setDoppler(dopplerFactor > 0f && distance > 0f ? doppler(dx, dy, dz, distance, instance.getVelocity()) : 1f);
+		instance.setListenerDistance2(distance2);
+		instance.stampPosition(x, y, z);
+		Vector3 velocity = instance.getVelocity();
+		if (velocity != null)
+			instance.stampVelocity(velocity.x, velocity.y, velocity.z);
+	}
+
+	/**
+	 * Compute the Doppler pitch factor of an emitter standing at (dx, dy, dz)
+	 * from the listener, OpenAL style.
+	 */
+	private float doppler(float dx, float dy, float dz, float distance, Vector3 emitterVelocity) {
+		// Listener speed towards the emitter, emitter speed away from the listener
+		Vector3 velocity = this.velocity;
+		float listenerSpeed = (dx * velocity.x + dy * velocity.y + dz * velocity.z) / distance;
+		float emitterSpeed = emitterVelocity == null ? 0f
+				: (dx * emitterVelocity.x + dy * emitterVelocity.y + dz * emitterVelocity.z) / distance;
+
+		// Speeds can't exceed the speed of sound
+		float limit = speedOfSound / dopplerFactor;
+		float numerator = speedOfSound + dopplerFactor * Math.max(listenerSpeed, -limit);
+		float denominator = speedOfSound + dopplerFactor * Math.max(emitterSpeed, -limit);
+		if (denominator <= 0f)
+			return MAX_PITCH;
+		return MathUtils.clamp(numerator / denominator, MIN_PITCH, MAX_PITCH);
+	}
+
+	/** Compute attenuation at given distance, using the current distance model. */
+	public float attenuation(float distance) {
+		float minDistance = this.minDistance;
+		float maxDistance = this.maxDistance;
+		float d = MathUtils.clamp(distance, minDistance, maxDistance);
+
+		switch (distanceModel) {
+		case LINEAR:
+			if (maxDistance <= minDistance)
+				return 1f;
+			return MathUtils.clamp(1f - rolloff * (d - minDistance) / (maxDistance - minDistance), 0f, 1f);
+		case EXPONENTIAL:
+			return (float) Math.pow(d / minDistance, -rolloff);
+		case INVERSE:
+		default:
+			return minDistance / (minDistance + rolloff * (d - minDistance));
+		}
+	}
+
+}
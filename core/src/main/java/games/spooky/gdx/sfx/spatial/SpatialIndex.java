@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Spatial index over sound instances, allowing {@link SpatializedSoundPlayer}
+ * to only consider instances near the listener when the listener moves.
+ * Requires a {@link TrackingSpatializer}.
+ */
+public interface SpatialIndex<T> {
+
+	/**
+	 * Insert given instance, or relocate it if its position changed. Called
+	 * every frame for every live instance.
+	 */
+	void update(SpatializedSound<T> instance);
+
+	void remove(SpatializedSound<T> instance);
+
+	void clear();
+
+	/**
+	 * Collect instances spatialization might currently make audible, as well
+	 * as those it might have made audible on previous query. Other instances
+	 * are silent and will stay so unless they move.
+	 * 
+	 * @param out
+	 *            the array to add found instances to
+	 */
+	void query(Array<SpatializedSound<T>> out);
+
+}
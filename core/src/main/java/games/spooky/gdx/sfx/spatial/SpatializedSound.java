@@ -28,8 +28,20 @@ import com.badlogic.gdx.utils.Pool.Poolable;
 
 public class SpatializedSound<T> implements Poolable {
 
+	/** Flags returned by {@link #flush(float)}, telling which backend calls were made */
+	public static final int SENT_VOLUME = 1, SENT_PAN = 2, SENT_PITCH = 4;
+
 	private Sound sound;
 	private long id;
+
+	/** Backend id, differs from {@link #id} once this sound went virtual and back */
+	private long soundId;
+
+	/** Player handle, managed by the player and left alone by {@link #reset()} */
+	private long handle = -1L;
+
+	/** Group of this sound if any, managed by the player and left alone by {@link #reset()} */
+	private SoundGroup group;
 	private float duration;
 	private T position;
 
@@ -40,59 +52,131 @@ public class SpatializedSound<T> implements Poolable {
 	 **/
 	private float intrinsicVolume;
 
+	/** Cached occlusion query result, multiplies volume like {@link #intrinsicVolume} */
+	private float occlusion;
+
 	/** current (realtime) volume of this sound, modified when spatializing */
 	private float volume;
 
 	private float pitch;
 	private float pan;
 
+	/** Velocity of the emitter, for Doppler effect; null if static */
+	private T velocity;
+
+	/** Pitch given at play time, before any Doppler shift */
+	private float basePitch;
+	private float doppler;
+
+	// Values last sent to the backend, see flush()
+	private float sentVolume;
+	private float sentPitch;
+	private float sentPan;
+	private boolean pending = false;
+
 	protected float elapsed;
 
+	/** Time not simulated yet, see {@link #defer(float)} */
+	private float deferred;
+
+	/** Squared distance to the listener, as of last spatialization */
+	private float listenerDistance2;
+
 	private boolean running = false;
 	private boolean looping = false;
 
+	/** Simulated only, with no backend voice */
+	private boolean virtual = false;
+
+	/** Instances with lower priority get stolen first when running out of voices */
+	private int priority;
+
+	// Spatialization stamp, see TrackingSpatializer
+	private float stampX, stampY, stampZ;
+	private float stampVelocityX, stampVelocityY, stampVelocityZ;
+	private int stampRevision;
+	private float stampVolume;
+	private boolean stamped = false;
+
+	// Spatial index bookkeeping, see SpatialIndex
+	private long indexKey = Long.MIN_VALUE;
+	private int nearFrame = -1;
+
+	/** Neighbours in the index's list of sounds sharing this one's key, if it keeps such lists */
+	SpatializedSound<T> indexPrevious, indexNext;
+
 	@Override
 	public void reset() {
-		if (sound != null)
-			sound.stop(id);
+		if (sound != null && !virtual)
+			sound.stop(soundId);
 		sound = null;
 
 		id = -1L;
+		soundId = -1L;
 
 		duration = -1f;
 
 		position = null;
+		velocity = null;
 
 		volume = 1f;
 		intrinsicVolume = 1f;
+		occlusion = 1f;
 		pitch = 1f;
+		basePitch = 1f;
+		doppler = 1f;
 		pan = 0f;
 
+		pending = false;
+
 		elapsed = Float.MAX_VALUE;
+		deferred = 0f;
+		listenerDistance2 = 0f;
 
 		running = false;
 		looping = false;
+		virtual = false;
+
+		priority = 0;
+
+		stamped = false;
+
+		indexKey = Long.MIN_VALUE;
+		nearFrame = -1;
+		indexPrevious = null;
+		indexNext = null;
 	}
 
 	public long initialize(Sound sound, boolean looping, float duration, T position, float volume, float pitch, float panning, float intrinsicVolume) {
 		this.sound = sound;
 		this.duration = duration;
 		this.intrinsicVolume = intrinsicVolume;
+		this.occlusion = 1f;
 		this.volume = volume;
 		this.pitch = pitch;
+		this.basePitch = pitch;
+		this.doppler = 1f;
 		this.pan = panning;
 
 		this.position = position;
 
 		this.elapsed = 0f;
+		this.deferred = 0f;
+		this.listenerDistance2 = 0f;
 
 		running = true;
 
 		float effectiveVolume = this.volume * this.intrinsicVolume;
+
+		this.sentVolume = effectiveVolume;
+		this.sentPitch = pitch;
+		this.sentPan = panning;
+		this.pending = false;
+
 		if (looping) {
-			return this.id = sound.loop(effectiveVolume, pitch, panning);
+			return this.id = this.soundId = sound.loop(effectiveVolume, pitch, panning);
 		} else {
-			return this.id = sound.play(effectiveVolume, pitch, panning);
+			return this.id = this.soundId = sound.play(effectiveVolume, pitch, panning);
 		}
 	}
 
@@ -100,6 +184,27 @@ public class SpatializedSound<T> implements Poolable {
 		return id;
 	}
 
+	/** Get the backend id this sound currently plays under, -1 while virtual. */
+	public long getSoundId() {
+		return soundId;
+	}
+
+	public long getHandle() {
+		return handle;
+	}
+
+	public void setHandle(long handle) {
+		this.handle = handle;
+	}
+
+	public SoundGroup getGroup() {
+		return group;
+	}
+
+	public void setGroup(SoundGroup group) {
+		this.group = group;
+	}
+
 	public Sound getSound() {
 		return sound;
 	}
@@ -116,6 +221,35 @@ public class SpatializedSound<T> implements Poolable {
 		this.position = position;
 	}
 
+	public T getVelocity() {
+		return velocity;
+	}
+
+	/** Set the velocity of this sound's emitter, null if static. Taken into account on next spatialization. */
+	public void setVelocity(T velocity) {
+		if (this.velocity != velocity) {
+			this.velocity = velocity;
+			stamped = false;
+		}
+	}
+
+	/** Get the pitch given at play time, before any Doppler shift. */
+	public float getBasePitch() {
+		return basePitch;
+	}
+
+	public float getDoppler() {
+		return doppler;
+	}
+
+	/** Set the Doppler pitch factor of this sound, applied to its base pitch. Sent to the backend on next {@link #flush(float)}. */
+	public void setDoppler(float doppler) {
+		if (this.doppler != doppler) {
+			this.doppler = doppler;
+			setPitch(basePitch * doppler);
+		}
+	}
+
 	public float getPitch() {
 		return this.pitch;
 	}
@@ -123,7 +257,7 @@ public class SpatializedSound<T> implements Poolable {
 	public void setPitch(float pitch) {
 		if (this.pitch != pitch) {
 			this.pitch = pitch;
-			sound.setPitch(id, pitch);
+			pending = true;
 		}
 	}
 
@@ -133,14 +267,14 @@ public class SpatializedSound<T> implements Poolable {
 	}
 
     /**
-     * Set the realtime volume of this sound.
-     * @param volume multiplied by {@link #intrinsicVolume} to get an effective realtime volume
+     * Set the realtime volume of this sound. Sent to the backend on next {@link #flush(float)}.
+     * @param volume multiplied by {@link #intrinsicVolume} and {@link #occlusion} to get an effective realtime volume
      */
 	public void setVolume(float volume) {
-	    float effectiveVolume = volume * this.intrinsicVolume;
+	    float effectiveVolume = volume * this.intrinsicVolume * this.occlusion;
 		if (this.volume != effectiveVolume) {
 			this.volume = effectiveVolume;
-			sound.setVolume(id, effectiveVolume);
+			pending = true;
 		}
 	}
 
@@ -149,21 +283,96 @@ public class SpatializedSound<T> implements Poolable {
         return this.intrinsicVolume;
     }
 
+	/** Set the intrinsic volume of this sound, taken into account on next spatialization. */
+	public void setIntrinsicVolume(float intrinsicVolume) {
+		if (this.intrinsicVolume != intrinsicVolume) {
+			this.intrinsicVolume = intrinsicVolume;
+			stamped = false;
+		}
+	}
+
+	public float getOcclusion() {
+		return occlusion;
+	}
+
+	/** Set the occlusion volume factor of this sound, see {@link Occluder}. Taken into account on next spatialization. */
+	public void setOcclusion(float occlusion) {
+		if (this.occlusion != occlusion) {
+			this.occlusion = occlusion;
+			stamped = false;
+		}
+	}
+
 	public float getPan() {
 		return this.pan;
 	}
 
 	/**
-	 * Set the realtime pan and volume of this sound.
-	 * @param volume multiplied by {@link #intrinsicVolume} to get an effective realtime volume
+	 * Set the realtime pan and volume of this sound. Sent to the backend on next {@link #flush(float)}.
+	 * @param volume multiplied by {@link #intrinsicVolume} and {@link #occlusion} to get an effective realtime volume
 	 */
 	public void setPan(float pan, float volume) {
-	    float effectiveVolume = volume * this.intrinsicVolume;
+	    float effectiveVolume = volume * this.intrinsicVolume * this.occlusion;
 		if (this.pan != pan || this.volume != effectiveVolume) {
 			this.pan = pan;
 			this.volume = effectiveVolume;
-			sound.setPan(id, pan, effectiveVolume);
+			pending = true;
+		}
+	}
+
+	public boolean hasPendingChanges() {
+		return pending;
+	}
+
+	/**
+	 * Send volume, panning and pitch changes to the backend, in as few calls as
+	 * possible: changes made since last flush are coalesced, and volume goes
+	 * along with panning when both changed.
+	 * 
+	 * @param threshold
+	 *            changes (relative to what was last sent) not exceeding this
+	 *            value are not sent, except for volume going down to silence
+	 * @return which backend calls were made, as a combination of
+	 *         {@link #SENT_VOLUME}, {@link #SENT_PAN} and {@link #SENT_PITCH}
+	 */
+	public int flush(float threshold) {
+		if (!pending)
+			return 0;
+		pending = false;
+
+		// Nothing to send to, devirtualize() takes current values anyway
+		if (virtual || sound == null)
+			return 0;
+
+		int sent = 0;
+		float volume = this.volume;
+		float pan = this.pan;
+		float pitch = this.pitch;
+		boolean volumeChanged = volume != sentVolume && (Math.abs(volume - sentVolume) > threshold || volume == 0f);
+		if (pan != sentPan && Math.abs(pan - sentPan) > threshold) {
+			sound.setPan(soundId, pan, volume);
+			sentPan = pan;
+			sentVolume = volume;
+			sent |= SENT_PAN;
+		} else if (volumeChanged) {
+			sound.setVolume(soundId, volume);
+			sentVolume = volume;
+			sent |= SENT_VOLUME;
 		}
+		if (pitch != sentPitch && Math.abs(pitch - sentPitch) > threshold) {
+			sound.setPitch(soundId, pitch);
+			sentPitch = pitch;
+			sent |= SENT_PITCH;
+		}
+		return sent;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public void setPriority(int priority) {
+		this.priority = priority;
 	}
 
 	public boolean isLooping() {
@@ -173,11 +382,98 @@ public class SpatializedSound<T> implements Poolable {
 	public void setLooping(boolean looping) {
 		if (this.looping != looping) {
 			this.looping = looping;
-			sound.setLooping(id, looping);
+			if (!virtual)
+				sound.setLooping(soundId, looping);
 		}
 	}
 
+	/**
+	 * Remember the position this sound was spatialized at. Meant to be called
+	 * by {@link TrackingSpatializer} implementations.
+	 */
+	public void stampPosition(float x, float y, float z) {
+		this.stampX = x;
+		this.stampY = y;
+		this.stampZ = z;
+	}
+
+	/**
+	 * Tell whether given position is the one this sound was last spatialized
+	 * at, within given tolerance.
+	 */
+	public boolean isStampedAt(float x, float y, float z, float epsilon) {
+		return Math.abs(stampX - x) <= epsilon && Math.abs(stampY - y) <= epsilon && Math.abs(stampZ - z) <= epsilon;
+	}
+
+	/** Remember the emitter velocity this sound was last spatialized with. */
+	public void stampVelocity(float x, float y, float z) {
+		this.stampVelocityX = x;
+		this.stampVelocityY = y;
+		this.stampVelocityZ = z;
+	}
+
+	/**
+	 * Tell whether given emitter velocity is the one this sound was last
+	 * spatialized with, within given tolerance.
+	 */
+	public boolean isStampedWithVelocity(float x, float y, float z, float epsilon) {
+		return Math.abs(stampVelocityX - x) <= epsilon && Math.abs(stampVelocityY - y) <= epsilon
+				&& Math.abs(stampVelocityZ - z) <= epsilon;
+	}
+
+	/** Remember the listener revision and nominal volume this sound was spatialized with. */
+	public void markSpatialized(int revision, float nominalVolume) {
+		this.stampRevision = revision;
+		this.stampVolume = nominalVolume;
+		this.stamped = true;
+	}
+
+	/** Tell whether this sound was last spatialized with given listener revision and nominal volume. */
+	public boolean isSpatializedWith(int revision, float nominalVolume) {
+		return stamped && stampRevision == revision && stampVolume == nominalVolume;
+	}
+
+	/** Forget about last spatialization, so that this sound gets spatialized again on next update. */
+	public void invalidateSpatialization() {
+		stamped = false;
+	}
+
+	/** Get the key of this sound in its {@link SpatialIndex}, {@link Long#MIN_VALUE} if none. */
+	public long getIndexKey() {
+		return indexKey;
+	}
+
+	public void setIndexKey(long indexKey) {
+		this.indexKey = indexKey;
+	}
+
+	/** Flag this sound as near the listener for given frame. */
+	public void markNear(int frame) {
+		this.nearFrame = frame;
+	}
+
+	public boolean isNear(int frame) {
+		return nearFrame == frame;
+	}
+
+	public float getListenerDistance2() {
+		return listenerDistance2;
+	}
+
+	/** Set the squared distance of this sound to the listener, for spatializers to report. */
+	public void setListenerDistance2(float listenerDistance2) {
+		this.listenerDistance2 = listenerDistance2;
+	}
+
+	/** Skip an update, given time being simulated on next {@link #update(float)}. */
+	public void defer(float deltaTime) {
+		deferred += deltaTime;
+	}
+
 	public boolean update(float deltaTime) {
+		deltaTime += deferred;
+		deferred = 0f;
+
 		if (running) {
 			elapsed += deltaTime;
 		}
@@ -186,6 +482,9 @@ public class SpatializedSound<T> implements Poolable {
 			elapsed -= duration;
 
 			if (looping) {
+				// Deferred updates may span several loops
+				if (elapsed >= duration)
+					elapsed %= duration;
 				return false;
 			} else {
 				running = false;
@@ -201,12 +500,56 @@ public class SpatializedSound<T> implements Poolable {
 	}
 
 	public void resume() {
-		sound.resume(id);
+		if (!virtual)
+			sound.resume(soundId);
 		running = true;
 	}
 
 	public void pause() {
-		sound.pause(id);
+		if (!virtual)
+			sound.pause(soundId);
 		running = false;
 	}
+
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Release the backend voice of this sound, which keeps being simulated
+	 * (time, volume, panning...) until {@link #devirtualize()} is called.
+	 */
+	public void virtualize() {
+		if (virtual || sound == null)
+			return;
+		sound.stop(soundId);
+		soundId = -1L;
+		virtual = true;
+	}
+
+	/**
+	 * Get a backend voice back for this sound, with its current volume, pitch
+	 * and panning. Backend sounds cannot be started at an offset, so playback
+	 * restarts from the beginning.
+	 * 
+	 * @return false if the backend could not provide a voice, this sound then
+	 *         stays virtual
+	 */
+	public boolean devirtualize() {
+		if (!virtual || sound == null)
+			return !virtual;
+
+		long soundId = looping ? sound.loop(volume, pitch, pan) : sound.play(volume, pitch, pan);
+		if (soundId == -1L)
+			return false;
+
+		this.soundId = soundId;
+		virtual = false;
+		sentVolume = volume;
+		sentPitch = pitch;
+		sentPan = pan;
+		if (!running)
+			sound.pause(soundId);
+		return true;
+	}
 }
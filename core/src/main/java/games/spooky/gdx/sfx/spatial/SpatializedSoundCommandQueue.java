@@ -0,0 +1,331 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import games.spooky.gdx.sfx.SfxSound;
+
+/**
+ * Bounded lock-free queue letting any thread send commands to a
+ * {@link SpatializedSoundPlayer}, which executes them at the beginning of its
+ * {@link SpatializedSoundPlayer#update(float) update}. Command slots are
+ * allocated once, so nothing gets allocated per command.
+ * <p>
+ * Many threads may push commands at once, the player being the only consumer.
+ * Handles of sounds played through this queue are reserved ahead on the player,
+ * so callers may stop or move them right away. A queue serves a single player.
+ */
+public class SpatializedSoundCommandQueue<T> {
+
+	private static final int PLAY = 0;
+	private static final int STOP = 1;
+	private static final int PAUSE = 2;
+	private static final int RESUME = 3;
+	private static final int MOVE = 4;
+	private static final int SKIP = 5;
+
+	private static final class Command<T> {
+		int type;
+		long handle;
+		T position;
+		SfxSound sound;
+		float intrinsicVolume;
+		float pitch;
+		boolean looping;
+		int priority;
+		SoundGroup group;
+	}
+
+	private final Command<T>[] commands;
+
+	/** Handles reserved on the player for sounds to be played, see {@link #reserve(SpatializedSoundPlayer)} */
+	private final AtomicLongArray handles;
+
+	/** Per handle slot sequence, same scheme as {@link #sequences} with roles swapped */
+	private final AtomicLongArray handleSequences;
+
+	private final AtomicLong handleHead = new AtomicLong();
+
+	/** Player side only */
+	private long handleTail = 0L;
+
+	private SpatializedSoundPlayer<T> player;
+
+	/**
+	 * Per slot sequence: equal to the slot's next write position when free,
+	 * to that position + 1 once written and not yet consumed.
+	 */
+	private final AtomicLongArray sequences;
+
+	private final int mask;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	/** Consumer side only */
+	private long head = 0L;
+
+	public SpatializedSoundCommandQueue(int capacity) {
+		capacity = MathUtils.nextPowerOfTwo(Math.max(2, capacity));
+		@SuppressWarnings("unchecked")
+		Command<T>[] commands = (Command<T>[]) new Command<?>[capacity];
+		this.commands = commands;
+		this.sequences = new AtomicLongArray(capacity);
+		this.handles = new AtomicLongArray(capacity);
+		this.handleSequences = new AtomicLongArray(capacity);
+		this.mask = capacity - 1;
+		for (int i = 0; i < capacity; i++) {
+			commands[i] = new Command<T>();
+			sequences.set(i, i);
+			handleSequences.set(i, i);
+		}
+	}
+
+	public int getCapacity() {
+		return commands.length;
+	}
+
+	public long play(T position, SfxSound sound) {
+		return play(position, sound, 1f, 1f, false, 0);
+	}
+
+	public long play(T position, SfxSound sound, float pitch, boolean looping) {
+		return play(position, sound, 1f, pitch, looping, 0);
+	}
+
+	/**
+	 * Queue a sound to be played, see
+	 * {@link SpatializedSoundPlayer#play(Object, SfxSound, float, float, boolean, int)}.
+	 * 
+	 * @return the sound's handle on the player, or -1 if the queue is full, the command being dropped
+	 */
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, int priority) {
+		return play(position, sound, intrinsicVolume, pitch, looping, priority, null);
+	}
+
+	/**
+	 * Queue a sound to be played, see
+	 * {@link SpatializedSoundPlayer#play(Object, SfxSound, float, float, boolean, int, SoundGroup)}.
+	 * 
+	 * @return the sound's handle on the player, valid for the player's methods and this queue's
+	 *         as soon as returned, or -1 if the queue is full, the command being dropped
+	 */
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, int priority,
+			SoundGroup group) {
+		long slot = claim();
+		if (slot < 0L)
+			return -1L;
+
+		Command<T> command = commands[(int) slot & mask];
+		long handle = takeHandle();
+		if (handle < 0L) {
+			// Out of reserved handles until the player catches up
+			command.type = SKIP;
+			publish(slot);
+			return -1L;
+		}
+		command.type = PLAY;
+		command.handle = handle;
+		command.position = position;
+		command.sound = sound;
+		command.intrinsicVolume = intrinsicVolume;
+		command.pitch = pitch;
+		command.looping = looping;
+		command.priority = priority;
+		command.group = group;
+		publish(slot);
+		return handle;
+	}
+
+	/** @return false if the queue is full, the command being dropped */
+	public boolean stop(long handle) {
+		return push(STOP, handle, null);
+	}
+
+	/** @return false if the queue is full, the command being dropped */
+	public boolean pause(long handle) {
+		return push(PAUSE, handle, null);
+	}
+
+	/** @return false if the queue is full, the command being dropped */
+	public boolean resume(long handle) {
+		return push(RESUME, handle, null);
+	}
+
+	/** @return false if the queue is full, the command being dropped */
+	public boolean move(long handle, T position) {
+		return push(MOVE, handle, position);
+	}
+
+	/**
+	 * Execute all commands queued so far on given player. To be called from
+	 * the player's thread only.
+	 */
+	public void drain(SpatializedSoundPlayer<T> player) {
+		execute(player);
+		reserve(player);
+	}
+
+	/**
+	 * Execute commands queued so far, then give handles still reserved back to
+	 * given player, which stops using this queue. Plays queued afterwards get
+	 * dropped until the queue is used again. To be called from the player's
+	 * thread only.
+	 */
+	void release(SpatializedSoundPlayer<T> player) {
+		if (this.player != player)
+			return;
+
+		execute(player);
+		long handle;
+		while ((handle = takeHandle()) >= 0L)
+			player.releaseSlot((int) handle);
+		this.player = null;
+	}
+
+	private void execute(SpatializedSoundPlayer<T> player) {
+		Command<T>[] commands = this.commands;
+		AtomicLongArray sequences = this.sequences;
+		int capacity = commands.length;
+
+		// Bounded, so that busy producers can't keep us here forever
+		for (int i = 0; i < capacity; i++) {
+			long head = this.head;
+			int index = (int) head & mask;
+			if (sequences.get(index) != head + 1L)
+				break;
+
+			Command<T> command = commands[index];
+			try {
+				switch (command.type) {
+				case PLAY:
+					player.play(command.handle, command.position, command.sound, command.intrinsicVolume, command.pitch,
+							command.looping, command.priority, command.group);
+					break;
+				case STOP:
+					player.stop(command.handle);
+					break;
+				case PAUSE:
+					player.pause(command.handle);
+					break;
+				case RESUME:
+					player.resume(command.handle);
+					break;
+				case MOVE:
+					player.setPosition(command.handle, command.position);
+					break;
+				}
+			} finally {
+				// A failing command must not jam the queue
+				command.position = null;
+				command.sound = null;
+				command.group = null;
+
+				// Hand the slot back to producers
+				sequences.set(index, head + capacity);
+				this.head = head + 1L;
+			}
+		}
+	}
+
+	/**
+	 * Top up handles reserved on given player, so that producers can be given
+	 * one at once. To be called from the player's thread only.
+	 */
+	void reserve(SpatializedSoundPlayer<T> player) {
+		if (this.player == null)
+			this.player = player;
+		else if (this.player != player)
+			throw new IllegalStateException("Command queue already used by another player");
+
+		AtomicLongArray handleSequences = this.handleSequences;
+		while (true) {
+			long tail = handleTail;
+			int index = (int) tail & mask;
+			if (handleSequences.get(index) != tail)
+				break;
+			handles.set(index, player.reserveHandle());
+			handleSequences.set(index, tail + 1L);
+			handleTail = tail + 1L;
+		}
+	}
+
+	/** @return a reserved handle, or -1 if none is left */
+	private long takeHandle() {
+		AtomicLong handleHead = this.handleHead;
+		AtomicLongArray handleSequences = this.handleSequences;
+		while (true) {
+			long position = handleHead.get();
+			int index = (int) position & mask;
+			long sequence = handleSequences.get(index);
+			if (sequence == position + 1L) {
+				if (handleHead.compareAndSet(position, position + 1L)) {
+					long handle = handles.get(index);
+					handleSequences.set(index, position + commands.length);
+					return handle;
+				}
+			} else if (sequence < position + 1L) {
+				return -1L;
+			}
+			// Otherwise another producer got there first, try again
+		}
+	}
+
+	private boolean push(int type, long handle, T position) {
+		long slot = claim();
+		if (slot < 0L)
+			return false;
+
+		Command<T> command = commands[(int) slot & mask];
+		command.type = type;
+		command.handle = handle;
+		command.position = position;
+		publish(slot);
+		return true;
+	}
+
+	/** @return the claimed write position, or -1 if the queue is full */
+	private long claim() {
+		AtomicLong tail = this.tail;
+		AtomicLongArray sequences = this.sequences;
+		while (true) {
+			long position = tail.get();
+			long sequence = sequences.get((int) position & mask);
+			if (sequence == position) {
+				if (tail.compareAndSet(position, position + 1L))
+					return position;
+			} else if (sequence < position) {
+				return -1L;
+			}
+			// Otherwise another producer got there first, try again
+		}
+	}
+
+	private void publish(long position) {
+		sequences.set((int) position & mask, position + 1L);
+	}
+}
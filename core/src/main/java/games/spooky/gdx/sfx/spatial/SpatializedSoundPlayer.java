@@ -23,29 +23,180 @@
  */
 package games.spooky.gdx.sfx.spatial;
 
-import java.util.Iterator;
+import java.util.Arrays;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
 
+import games.spooky.gdx.sfx.SfxFrameStats;
+import games.spooky.gdx.sfx.SfxMetrics;
 import games.spooky.gdx.sfx.SfxSound;
+import games.spooky.gdx.sfx.SfxThrottledSound;
 
 public class SpatializedSoundPlayer<T> {
 
-	protected final Pool<SpatializedSound<T>> pool = new Pool<SpatializedSound<T>>() {
+	protected final Pool<SpatializedSound<T>> pool;
+
+	/** Maximum number of live instances, virtual ones included */
+	protected final int capacity;
+
+	/** Highest number of live instances so far */
+	protected int peakVoices = 0;
+
+	/** Number of live instances storage got allocated for, see {@link #prewarm(int)} */
+	protected int prewarmed = 0;
+
+	/** Live instances by handle slot, null for free slots */
+	protected final Array<SpatializedSound<T>> slots = new Array<SpatializedSound<T>>(true, 16);
+
+	/** Current generation of each slot, handles carrying an older one are stale */
+	protected final IntArray generations = new IntArray(true, 16);
+
+	protected final IntArray freeSlots = new IntArray(false, 16);
+
+	/** Stops instances whose throttled sound stole their voice */
+	private final SfxThrottledSound.StopListener stopListener = new SfxThrottledSound.StopListener() {
 		@Override
-		protected SpatializedSound<T> newObject() {
-			return SpatializedSoundPlayer.this.newObject();
+		public void stopped(SfxThrottledSound sound, long soundId) {
+			Array<SpatializedSound<T>> active = SpatializedSoundPlayer.this.active;
+			for (int i = 0, n = active.size; i < n; i++) {
+				SpatializedSound<T> instance = active.get(i);
+				// Freed on next update
+				if (instance.getSound() == sound && instance.getSoundId() == soundId) {
+					instance.stop();
+					return;
+				}
+			}
 		}
 	};
 
-	protected final LongMap<SpatializedSound<T>> sounds = new LongMap<SpatializedSound<T>>();
+	/** Throttled sounds {@link #stopListener} was added to, see {@link #watch(SfxSound)} */
+	protected final Array<SfxThrottledSound> watched = new Array<SfxThrottledSound>(false, 4);
+
+	/** Handle reserved through the command queue for the sound being played, -1 if none */
+	private long reservedHandle = -1L;
+
+	/** Live instances, densely packed (unordered) for iteration */
+	protected final Array<SpatializedSound<T>> active = new Array<SpatializedSound<T>>(false, 16);
+
+	/** Instances to spatialize this frame, filled up by {@link #update(float)} */
+	protected final Array<SpatializedSound<T>> batch = new Array<SpatializedSound<T>>(false, 16);
+
+	/** Groups used so far, see {@link SoundGroup#index} */
+	protected final Array<SoundGroup> groups = new Array<SoundGroup>(true, 4);
+
+	/** Per group instances to spatialize this frame, as they share their nominal volume */
+	protected final Array<Array<SpatializedSound<T>>> groupBatches = new Array<Array<SpatializedSound<T>>>(true, 4);
+
+	/** Instances near the listener this frame, when using a spatial index */
+	protected final Array<SpatializedSound<T>> near = new Array<SpatializedSound<T>>(false, 16);
 
 	protected Spatializer<T> spatializer;
 
+	protected SpatialIndex<T> index;
+
+	protected SpatializedSoundCommandQueue<T> commands;
+
+	protected Occluder<T> occluder;
+
+	/** Number of voices to run occlusion queries for, each frame */
+	protected int occlusionBudget = 0;
+
+	/** Next voice to run occlusion queries for, round-robin */
+	protected int occlusionCursor = 0;
+
+	/** Frame counter, for near instances flagging */
+	protected int frame = 0;
+
 	protected float volume = 1f;
 
+	protected int maxVoices = Integer.MAX_VALUE;
+
+	protected float virtualThreshold = 0f;
+
+	protected float changeThreshold = 0f;
+
+	protected SfxMetrics metrics;
+
+	private final SfxFrameStats stats = new SfxFrameStats();
+
+	// Counters since last metrics report
+	protected int failedPlays = 0;
+	private int sentVolumes = 0;
+	private int sentPans = 0;
+	private int sentPitches = 0;
+
+	/** Squared distances from which voices update less often, ascending; null if all voices update every frame */
+	protected float[] updateDistances2 = null;
+
+	public SpatializedSoundPlayer() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create a player allocating everything it needs for given number of live
+	 * sounds upfront, and never more: once reached, playing a sound steals the
+	 * one with lowest priority (the quietest one among those), virtual ones
+	 * included.
+	 * 
+	 * @param capacity
+	 *            maximum number of live sounds, {@link Integer#MAX_VALUE} for
+	 *            no limit (and no preallocation)
+	 */
+	public SpatializedSoundPlayer(int capacity) {
+		this.capacity = capacity;
+		this.pool = new Pool<SpatializedSound<T>>(16, capacity) {
+			@Override
+			protected SpatializedSound<T> newObject() {
+				return SpatializedSoundPlayer.this.newObject();
+			}
+		};
+		if (capacity != Integer.MAX_VALUE)
+			prewarm(capacity);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/** Get the highest number of live sounds so far, to size {@link #SpatializedSoundPlayer(int) capacity}. */
+	public int getPeakVoices() {
+		return peakVoices;
+	}
+
+	/**
+	 * Allocate everything needed for given number of live sounds (within
+	 * capacity), so that playing them won't allocate.
+	 */
+	public void prewarm(int count) {
+		count = Math.min(count, capacity);
+		Pool<SpatializedSound<T>> pool = this.pool;
+		for (int i = active.size + pool.getFree(); i < count; i++)
+			pool.free(newObject());
+
+		int missing = count - active.size;
+		if (missing > 0) {
+			active.ensureCapacity(missing);
+			batch.ensureCapacity(count - batch.size);
+			near.ensureCapacity(count - near.size);
+			slots.ensureCapacity(count - slots.size);
+			generations.ensureCapacity(count - generations.size);
+			freeSlots.ensureCapacity(count - freeSlots.size);
+		}
+
+		// Any voice may end up in any group
+		if (count > prewarmed) {
+			prewarmed = count;
+			for (int i = 0, n = groupBatches.size; i < n; i++) {
+				Array<SpatializedSound<T>> groupBatch = groupBatches.get(i);
+				groupBatch.ensureCapacity(count - groupBatch.size);
+			}
+		}
+	}
+
 	public Spatializer<T> getSpatializer() {
 		return spatializer;
 	}
@@ -54,6 +205,83 @@ public class SpatializedSoundPlayer<T> {
 		this.spatializer = spatializer;
 	}
 
+	public SpatialIndex<T> getSpatialIndex() {
+		return index;
+	}
+
+	/**
+	 * Set the spatial index used to only spatialize instances near the
+	 * listener when it moves. Only effective with a {@link TrackingSpatializer}.
+	 */
+	public void setSpatialIndex(SpatialIndex<T> index) {
+		if (this.index != null)
+			this.index.clear();
+		this.index = index;
+		if (index != null) {
+			for (int i = 0, n = active.size; i < n; i++)
+				index.update(active.get(i));
+		}
+	}
+
+	public SpatializedSoundCommandQueue<T> getCommandQueue() {
+		return commands;
+	}
+
+	/**
+	 * Set the queue other threads may send commands through. Commands are
+	 * executed at the beginning of {@link #update(float)}. Commands already
+	 * sent through the previous queue get executed at once.
+	 * 
+	 * @throws IllegalStateException if the queue serves another player
+	 */
+	public void setCommandQueue(SpatializedSoundCommandQueue<T> commands) {
+		SpatializedSoundCommandQueue<T> previous = this.commands;
+		if (previous == commands)
+			return;
+
+		if (commands != null)
+			commands.reserve(this);
+		this.commands = commands;
+		// Handles reserved for plays that won't come
+		if (previous != null)
+			previous.release(this);
+	}
+
+	public Occluder<T> getOccluder() {
+		return occluder;
+	}
+
+	public int getOcclusionBudget() {
+		return occlusionBudget;
+	}
+
+	/**
+	 * Set the occlusion query to run on voices, feeding into their volume.
+	 * Queries run for a newly played voice, then at most
+	 * {@code voicesPerFrame} voices per frame in turn, results being cached
+	 * in between.
+	 * 
+	 * @param occluder
+	 *            the query, null to disable occlusion
+	 */
+	public void setOccluder(Occluder<T> occluder, int voicesPerFrame) {
+		this.occluder = occluder;
+		this.occlusionBudget = voicesPerFrame;
+		if (occluder == null) {
+			for (int i = 0, n = active.size; i < n; i++)
+				active.get(i).setOcclusion(1f);
+		}
+	}
+
+	public SfxMetrics getMetrics() {
+		return metrics;
+	}
+
+	/** Set where to report statistics of each {@link #update(float)} to, null for none. */
+	public void setMetrics(SfxMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	public float getVolume() {
 		return volume;
 	}
@@ -62,6 +290,70 @@ public class SpatializedSoundPlayer<T> {
 		this.volume = volume;
 	}
 
+	public int getMaxVoices() {
+		return maxVoices;
+	}
+
+	/**
+	 * Set the maximum number of voices this player may have at once. When
+	 * reached, playing a new sound steals the voice with lowest priority, the
+	 * quietest one among those.
+	 */
+	public void setMaxVoices(int maxVoices) {
+		this.maxVoices = maxVoices;
+	}
+
+	public float getVirtualThreshold() {
+		return virtualThreshold;
+	}
+
+	/**
+	 * Set the spatialized volume at or below which looping sounds go virtual:
+	 * they release their backend voice while still being simulated, and get
+	 * one back as soon as they are audible again (restarting their loop, as
+	 * backend sounds cannot be started at an offset). Defaults to 0, so that
+	 * only silent sounds go virtual. Use a negative value to disable.
+	 */
+	public void setVirtualThreshold(float virtualThreshold) {
+		this.virtualThreshold = virtualThreshold;
+	}
+
+	public float getChangeThreshold() {
+		return changeThreshold;
+	}
+
+	/**
+	 * Set the threshold under which volume, panning and pitch changes are not
+	 * sent to the backend. Defaults to 0, i.e. any change is sent.
+	 */
+	public void setChangeThreshold(float changeThreshold) {
+		this.changeThreshold = changeThreshold;
+	}
+
+	/**
+	 * Update distant voices less often: voices at or beyond the i-th distance
+	 * (from the listener, as reported by the spatializer, in world units) only
+	 * get updated and spatialized every 2^(i+1) frames, time being caught up on
+	 * next update. E.g. {@code setUpdateIntervals(20f, 40f, 80f)} updates
+	 * voices every 2nd frame from 20 units away, every 4th from 40 and every
+	 * 8th from 80. Voices whose listener state or nominal volume changed get
+	 * updated right away regardless.
+	 * 
+	 * @param distances
+	 *            none to update all voices every frame
+	 */
+	public void setUpdateIntervals(float... distances) {
+		if (distances == null || distances.length == 0) {
+			updateDistances2 = null;
+			return;
+		}
+		float[] distances2 = new float[distances.length];
+		for (int i = 0; i < distances.length; i++)
+			distances2[i] = distances[i] * distances[i];
+		Arrays.sort(distances2);
+		updateDistances2 = distances2;
+	}
+
 	public long play(T position, SfxSound sound) {
 		return play(position, sound, 1f, 1f, false);
 	}
@@ -70,72 +362,706 @@ public class SpatializedSoundPlayer<T> {
 	    return play(position, sound, 1f, pitch, looping);
 	}
 
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping) {
+		return play(position, sound, intrinsicVolume, pitch, looping, 0);
+	}
+
+	public long play(T position, SfxSound sound, SoundGroup group) {
+		return play(position, sound, 1f, 1f, false, 0, group);
+	}
+
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, int priority) {
+		return play(position, sound, intrinsicVolume, pitch, looping, priority, null);
+	}
+
 	/**
 	 * @param intrinsicVolume intrinsic volume of this sound, set at init, and multiples all subsequent volumes
+	 * @param priority sounds with lower priority get stolen first when running out of voices
+	 * @param group group to play the sound in, may be null
+	 * @return a handle to the sound for this player's methods (not a backend sound id), or -1 if it could not be played.
+	 *         Handles of finished or stopped sounds are simply ignored, even once their voice got reused.
 	 */
-	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping) {
-		SpatializedSound<T> instance = pool.obtain();
+	public long play(T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, int priority, SoundGroup group) {
+		if (!admit(sound, priority, group))
+			return -1L;
+		return play(pool.obtain(), position, sound, intrinsicVolume, pitch, looping, priority, group);
+	}
 
-		float duration = sound.getDuration();
+	/**
+	 * Get ready to play given sound, making room for it if needed. To be called
+	 * before obtaining an instance for it, so that the pool never exceeds
+	 * capacity.
+	 * 
+	 * @return false if no voice is available for such a priority
+	 */
+	protected boolean admit(SfxSound sound, int priority, SoundGroup group) {
+		if (group != null)
+			addGroup(group);
+		watch(sound);
 
-		Spatializer<T> spatializer = this.spatializer;
+		if (!reserveVoice(priority)) {
+			Gdx.app.debug("gdx-sfx", "No voice left for sound " + sound);
+			failedPlays++;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Play given sound through given instance, obtained from the pool once
+	 * {@link #admit(SfxSound, int, SoundGroup) admitted}, which gets freed if
+	 * the sound could not be played.
+	 * 
+	 * @see #play(Object, SfxSound, float, float, boolean, int, SoundGroup)
+	 */
+	protected long play(SpatializedSound<T> instance, T position, SfxSound sound, float intrinsicVolume, float pitch,
+			boolean looping, int priority, SoundGroup group) {
+		float duration = sound.getDuration();
 
 		long id = instance.initialize(sound, looping, duration, position, 0f,
 				pitch, 0f, intrinsicVolume);
 
+		// Backend ran out of voices, make room and try again
+		if (id == -1 && !isThrottled(sound) && steal(priority)) {
+			id = instance.initialize(sound, looping, duration, position, 0f,
+					pitch, 0f, intrinsicVolume);
+		}
+
 		if (id == -1) {
 			pool.free(instance);
-			Gdx.app.error("gdx-sfx", "Couldn't play sound " + sound);
+			if (isThrottled(sound))
+				Gdx.app.debug("gdx-sfx", "Throttled sound " + sound);
+			else
+				Gdx.app.error("gdx-sfx", "Couldn't play sound " + sound);
+			failedPlays++;
+			return -1L;
+		}
+
+		return register(instance, looping, priority, group);
+	}
+
+	/** Tell whether given sound declined to play because of its own limits, see {@link SfxThrottledSound}. */
+	protected static boolean isThrottled(SfxSound sound) {
+		return sound instanceof SfxThrottledSound && ((SfxThrottledSound) sound).isThrottled();
+	}
+
+	/**
+	 * Get told when given sound stops some of its instances on its own, to drop
+	 * them as well, see {@link SfxThrottledSound}.
+	 */
+	protected void watch(SfxSound sound) {
+		if (sound instanceof SfxThrottledSound && !watched.contains((SfxThrottledSound) sound, true)) {
+			SfxThrottledSound throttled = (SfxThrottledSound) sound;
+			throttled.addStopListener(stopListener);
+			watched.add(throttled);
+		}
+	}
+
+	/** Stop listening to the sounds {@link #watch(SfxSound) watched} so far. */
+	protected void unwatch() {
+		Array<SfxThrottledSound> watched = this.watched;
+		for (int i = 0, n = watched.size; i < n; i++)
+			watched.get(i).removeStopListener(stopListener);
+		watched.clear();
+	}
+
+	/**
+	 * Make sure there is room for a new voice with given priority, stealing
+	 * one if needed.
+	 * 
+	 * @return false if no voice is available for such a priority
+	 */
+	protected boolean reserveVoice(int priority) {
+		if (active.size >= capacity && !steal(priority, true))
+			return false;
+		return active.size < maxVoices || countRealVoices() < maxVoices || steal(priority, false);
+	}
+
+	/** Count voices actually holding a backend voice. */
+	protected int countRealVoices() {
+		Array<SpatializedSound<T>> active = this.active;
+		int count = 0;
+		for (int i = 0, n = active.size; i < n; i++) {
+			SpatializedSound<T> instance = active.get(i);
+			if (instance.getSound() != null && !instance.isVirtual())
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Stop the voice with lowest priority (the quietest one among those),
+	 * provided its priority does not exceed given one.
+	 * 
+	 * @return true if a voice was actually freed
+	 */
+	protected boolean steal(int priority) {
+		return steal(priority, false);
+	}
+
+	/**
+	 * @param virtual
+	 *            whether virtual voices may be stolen too, i.e. making room
+	 *            for a new instance rather than for a backend voice
+	 */
+	protected boolean steal(int priority, boolean virtual) {
+		Array<SpatializedSound<T>> active = this.active;
+
+		int victim = -1;
+		int victimPriority = 0;
+		float victimVolume = 0f;
+		for (int i = 0, n = active.size; i < n; i++) {
+			SpatializedSound<T> instance = active.get(i);
+
+			// Already stopped, pending removal
+			if (instance.getSound() == null) {
+				victim = i;
+				victimPriority = Integer.MIN_VALUE;
+				break;
+			}
+
+			// Holds no backend voice anyway
+			if (!virtual && instance.isVirtual())
+				continue;
+
+			int instancePriority = instance.getPriority();
+			float instanceVolume = instance.getVolume();
+			if (victim == -1 || instancePriority < victimPriority
+					|| (instancePriority == victimPriority && instanceVolume < victimVolume)) {
+				victim = i;
+				victimPriority = instancePriority;
+				victimVolume = instanceVolume;
+			}
+		}
+
+		if (victim == -1 || victimPriority > priority)
+			return false;
+
+		remove(victim);
+		return true;
+	}
+
+	/**
+	 * Start tracking a freshly played instance.
+	 * 
+	 * @return its handle
+	 */
+	protected long register(SpatializedSound<T> instance, boolean looping, int priority, SoundGroup group) {
+		instance.setPriority(priority);
+		instance.setLooping(looping);
+		if (group != null) {
+			addGroup(group);
+			group.voices++;
+			instance.setGroup(group);
+			if (group.isPaused())
+				instance.pause();
+		}
+		if (occluder != null)
+			instance.setOcclusion(occluder.getTransmission(instance.getPosition()));
+		spatialize(instance);
+
+		long handle = acquireHandle(instance);
+		active.add(instance);
+		if (active.size > peakVoices)
+			peakVoices = active.size;
+		if (index != null)
+			index.update(instance);
+
+		flush(instance);
+		return handle;
+	}
+
+	/**
+	 * Play a sound under a handle previously given by {@link #reserveHandle()},
+	 * which gets released if the sound could not be played.
+	 */
+	long play(long handle, T position, SfxSound sound, float intrinsicVolume, float pitch, boolean looping, int priority,
+			SoundGroup group) {
+		reservedHandle = handle;
+		try {
+			return play(position, sound, intrinsicVolume, pitch, looping, priority, group);
+		} finally {
+			if (reservedHandle != -1L) {
+				releaseSlot((int) handle);
+				reservedHandle = -1L;
+			}
+		}
+	}
+
+	/**
+	 * Make given group one of this player's, if not already. Groups get added
+	 * on first play otherwise, which allocates: add them upfront to keep
+	 * gameplay allocation free.
+	 * 
+	 * @throws IllegalStateException if the group belongs to another player
+	 */
+	public void addGroup(SoundGroup group) {
+		if (group.owner == this)
+			return;
+		if (group.owner != null)
+			throw new IllegalStateException("Sound group " + group + " already belongs to another player");
+
+		group.owner = this;
+		group.index = groups.size;
+		groups.add(group);
+		groupBatches.add(new Array<SpatializedSound<T>>(false, Math.max(16, prewarmed)));
+	}
+
+	/** Give given instance a slot, returning its handle: generation in the high bits, slot in the low ones. */
+	private long acquireHandle(SpatializedSound<T> instance) {
+		int slot;
+		if (reservedHandle != -1L) {
+			slot = (int) reservedHandle;
+			reservedHandle = -1L;
+			slots.set(slot, instance);
+		} else if (freeSlots.size > 0) {
+			slot = freeSlots.pop();
+			slots.set(slot, instance);
 		} else {
-			instance.setLooping(looping);
-			spatializer.spatialize(instance, this.volume);
+			slot = slots.size;
+			slots.add(instance);
+			generations.add(1);
+		}
+		long handle = ((long) generations.get(slot) << 32) | slot;
+		instance.setHandle(handle);
+		return handle;
+	}
+
+	private void releaseHandle(SpatializedSound<T> instance) {
+		long handle = instance.getHandle();
+		if (handle == -1L)
+			return;
 
-			sounds.put(id, instance);
+		releaseSlot((int) handle);
+		instance.setHandle(-1L);
+	}
+
+	/**
+	 * Set a slot aside for a sound to be played later through
+	 * {@link #play(long, Object, SfxSound, float, float, boolean, int, SoundGroup)}.
+	 * The handle resolves to nothing until then.
+	 */
+	long reserveHandle() {
+		int slot;
+		if (freeSlots.size > 0) {
+			slot = freeSlots.pop();
+		} else {
+			slot = slots.size;
+			slots.add(null);
+			generations.add(1);
 		}
+		return ((long) generations.get(slot) << 32) | slot;
+	}
 
-		return id;
+	void releaseSlot(int slot) {
+		slots.set(slot, null);
+		// Stale handles get rejected from now on; wrapping keeps handles positive
+		int generation = generations.get(slot) + 1;
+		generations.set(slot, generation > 0 ? generation : 1);
+		freeSlots.add(slot);
+	}
+
+	/**
+	 * Get the live instance behind given handle.
+	 * 
+	 * @return null if the handle is stale, or its sound stopped
+	 */
+	protected SpatializedSound<T> resolve(long handle) {
+		if (handle < 0L)
+			return null;
+
+		int slot = (int) handle;
+		if (slot >= slots.size || generations.get(slot) != (int) (handle >>> 32))
+			return null;
+
+		SpatializedSound<T> instance = slots.get(slot);
+		return instance != null && instance.getSound() != null ? instance : null;
 	}
 
 	public void update(float delta) {
-		Iterator<SpatializedSound<T>> iterator = sounds.values();
-		while (iterator.hasNext()) {
-			SpatializedSound<T> instance = iterator.next();
+		long start = metrics == null ? 0L : TimeUtils.nanoTime();
+
+		if (commands != null)
+			commands.drain(this);
 
-			if (instance.update(delta)) {
-				iterator.remove();
-				pool.free(instance);
+		Array<SpatializedSound<T>> active = this.active;
+		Array<SpatializedSound<T>> batch = this.batch;
+
+		frame++;
+
+		Array<SoundGroup> groups = this.groups;
+		for (int i = 0, n = groups.size; i < n; i++)
+			groups.get(i).update(delta);
+
+		SpatialIndex<T> index = this.index;
+		if (index != null) {
+			Array<SpatializedSound<T>> near = this.near;
+			index.query(near);
+			for (int i = 0, n = near.size; i < n; i++)
+				near.get(i).markNear(frame);
+			near.clear();
+		}
+
+		if (occluder != null)
+			occlude();
+
+		int revision = revision(spatializer);
+
+		// Index-based on purpose: no iterator to allocate, and instances may
+		// be added or removed along the way
+		for (int i = 0; i < active.size;) {
+			SpatializedSound<T> instance = active.get(i);
+
+			// Far voice, not its turn: just catch up later. Staggered by slot so
+			// that such voices don't all update on the same frame. Listener or
+			// volume changes can't wait though, or the voice would keep a stale volume
+			int interval = updateInterval(instance);
+			if (interval > 1 && ((frame + (int) instance.getHandle()) & (interval - 1)) != 0
+					&& instance.isSpatializedWith(revision, nominalVolume(instance.getGroup()))) {
+				instance.defer(delta);
+				if (index != null)
+					index.update(instance);
+				i++;
+			} else if (instance.update(delta)) {
+				remove(i);
 			} else {
-				spatializer.spatialize(instance, this.volume);
+				if (index != null)
+					index.update(instance);
+				if (needsSpatialization(instance)) {
+					SoundGroup group = instance.getGroup();
+					(group == null ? batch : groupBatches.get(group.index)).add(instance);
+				}
+				i++;
+			}
+		}
+
+		int realVoices = maxVoices == Integer.MAX_VALUE ? 0 : -1;
+		realVoices = spatialize(batch, this.volume, realVoices);
+		for (int i = 0, n = groups.size; i < n; i++)
+			realVoices = spatialize(groupBatches.get(i), nominalVolume(groups.get(i)), realVoices);
+
+		// Send all changes made this frame, once
+		for (int i = 0, n = active.size; i < n; i++)
+			flush(active.get(i));
+
+		if (metrics != null)
+			report(TimeUtils.nanoTime() - start);
+	}
+
+	/** Send pending changes of given instance to the backend, counting calls made. */
+	protected void flush(SpatializedSound<T> instance) {
+		int sent = instance.flush(changeThreshold);
+		if (sent != 0) {
+			if ((sent & SpatializedSound.SENT_VOLUME) != 0)
+				sentVolumes++;
+			if ((sent & SpatializedSound.SENT_PAN) != 0)
+				sentPans++;
+			if ((sent & SpatializedSound.SENT_PITCH) != 0)
+				sentPitches++;
+		}
+	}
+
+	private void report(long updateNanos) {
+		Array<SpatializedSound<T>> active = this.active;
+		int virtualVoices = 0;
+		for (int i = 0, n = active.size; i < n; i++) {
+			if (active.get(i).isVirtual())
+				virtualVoices++;
+		}
+
+		SfxFrameStats stats = this.stats;
+		stats.activeVoices = active.size;
+		stats.virtualVoices = virtualVoices;
+		stats.poolFree = pool.getFree();
+		stats.poolPeak = pool.peak;
+		stats.peakVoices = peakVoices;
+		stats.setVolumeCalls = sentVolumes;
+		stats.setPanCalls = sentPans;
+		stats.setPitchCalls = sentPitches;
+		stats.failedPlays = failedPlays;
+		stats.updateNanos = updateNanos;
+		metrics.report(this, stats);
+
+		sentVolumes = 0;
+		sentPans = 0;
+		sentPitches = 0;
+		failedPlays = 0;
+	}
+
+	/**
+	 * Get the number of frames between two updates of given voice, a power of
+	 * two, see {@link #setUpdateIntervals(float...)}.
+	 */
+	protected int updateInterval(SpatializedSound<T> instance) {
+		float[] distances2 = this.updateDistances2;
+		// Stopped voices have to go right away
+		if (distances2 == null || instance.getSound() == null)
+			return 1;
+
+		float distance2 = instance.getListenerDistance2();
+		int level = 0;
+		while (level < distances2.length && distance2 >= distances2[level])
+			level++;
+		return 1 << level;
+	}
+
+	/** Run occlusion queries for the next voices in turn, within budget. */
+	protected void occlude() {
+		Array<SpatializedSound<T>> active = this.active;
+		int size = active.size;
+		if (size == 0)
+			return;
+
+		Occluder<T> occluder = this.occluder;
+		SpatialIndex<T> index = this.index;
+		int cursor = occlusionCursor;
+		for (int i = 0, n = Math.min(occlusionBudget, size); i < n; i++) {
+			if (cursor >= size)
+				cursor = 0;
+			SpatializedSound<T> instance = active.get(cursor++);
+			// Out of reach voices are silent anyway
+			if (instance.getSound() != null && (index == null || instance.isNear(frame)))
+				instance.setOcclusion(occluder.getTransmission(instance.getPosition()));
+		}
+		occlusionCursor = cursor;
+	}
+
+	/** Remove instance at given index in {@link #active}, last instance taking its place. */
+	protected void remove(int index) {
+		SpatializedSound<T> instance = active.removeIndex(index);
+		releaseHandle(instance);
+		releaseGroup(instance);
+		if (this.index != null)
+			this.index.remove(instance);
+		pool.free(instance);
+	}
+
+	/**
+	 * Tell whether given instance has to be spatialized again. Always true
+	 * unless the spatializer is a {@link TrackingSpatializer}, in which case
+	 * only instances that moved, or whose listener state or nominal volume
+	 * changed since last time, are concerned.
+	 */
+	protected boolean needsSpatialization(SpatializedSound<T> instance) {
+		Spatializer<T> spatializer = this.spatializer;
+		if (spatializer instanceof TrackingSpatializer) {
+			TrackingSpatializer<T> tracking = (TrackingSpatializer<T>) spatializer;
+			if (index != null && !instance.isNear(frame)) {
+				// Out of reach, now and last frame: silent, and staying so unless it moves
+				return tracking.hasMoved(instance);
+			}
+			return !instance.isSpatializedWith(tracking.getRevision(), nominalVolume(instance.getGroup()))
+					|| tracking.hasMoved(instance);
+		}
+		return true;
+	}
+
+	/** Get the nominal volume of sounds in given group (possibly null). */
+	protected float nominalVolume(SoundGroup group) {
+		return group == null ? this.volume : this.volume * group.getEffectiveVolume();
+	}
+
+	protected void spatialize(SpatializedSound<T> instance) {
+		Spatializer<T> spatializer = this.spatializer;
+		float volume = nominalVolume(instance.getGroup());
+		spatializer.spatialize(instance, volume);
+		instance.markSpatialized(revision(spatializer), volume);
+		updateVirtualization(instance, -1);
+	}
+
+	/**
+	 * Spatialize given instances all at once if the spatializer allows it, one
+	 * by one otherwise. The array is cleared afterwards.
+	 * 
+	 * @param realVoices
+	 *            number of real voices, or -1 if not counted yet
+	 * @return the updated number of real voices, or given value if nothing was
+	 *         spatialized
+	 */
+	protected int spatialize(Array<SpatializedSound<T>> instances, float volume, int realVoices) {
+		int size = instances.size;
+		if (size == 0)
+			return realVoices;
+
+		Spatializer<T> spatializer = this.spatializer;
+		if (spatializer instanceof BatchSpatializer) {
+			((BatchSpatializer<T>) spatializer).spatialize(instances, 0, size, volume);
+		} else {
+			for (int i = 0; i < size; i++)
+				spatializer.spatialize(instances.get(i), volume);
+		}
+
+		int revision = revision(spatializer);
+		if (realVoices < 0)
+			realVoices = countRealVoices();
+		for (int i = 0; i < size; i++) {
+			SpatializedSound<T> instance = instances.get(i);
+			instance.markSpatialized(revision, volume);
+			realVoices += updateVirtualization(instance, realVoices);
+		}
+
+		instances.clear();
+		return realVoices;
+	}
+
+	/**
+	 * Virtualize given freshly spatialized instance if it became inaudible,
+	 * devirtualize it if it became audible again and the voice budget allows.
+	 * 
+	 * @param realVoices
+	 *            number of real voices, or -1 if unknown
+	 * @return the change in number of real voices
+	 */
+	protected int updateVirtualization(SpatializedSound<T> instance, int realVoices) {
+		if (!instance.isLooping() || virtualThreshold < 0f)
+			return 0;
+
+		if (instance.isVirtual()) {
+			if (instance.getVolume() > virtualThreshold) {
+				if (maxVoices != Integer.MAX_VALUE && (realVoices < 0 ? countRealVoices() : realVoices) >= maxVoices)
+					return 0;
+				if (instance.devirtualize())
+					return 1;
 			}
+		} else if (instance.getVolume() <= virtualThreshold) {
+			instance.virtualize();
+			return -1;
 		}
+		return 0;
+	}
+
+	private int revision(Spatializer<T> spatializer) {
+		return spatializer instanceof TrackingSpatializer ? ((TrackingSpatializer<T>) spatializer).getRevision() : 0;
 	}
 
+	/** Stop all sounds, letting go of the sounds played so far. */
 	public void stop() {
+		unwatch();
 		Pool<SpatializedSound<T>> pool = this.pool;
-		LongMap<SpatializedSound<T>> sounds = this.sounds;
-		for (SpatializedSound<T> object : sounds.values())
-			pool.free(object);
-		sounds.clear();
+		Array<SpatializedSound<T>> active = this.active;
+		batch.clear();
+		for (int i = 0, n = groupBatches.size; i < n; i++)
+			groupBatches.get(i).clear();
+		if (index != null)
+			index.clear();
+		while (active.size > 0) {
+			SpatializedSound<T> instance = active.pop();
+			releaseHandle(instance);
+			releaseGroup(instance);
+			pool.free(instance);
+		}
+	}
+
+	/** Stop all sounds, for good, letting go of the command queue. */
+	public void dispose() {
+		setCommandQueue(null);
+		stop();
+	}
+
+	private void releaseGroup(SpatializedSound<T> instance) {
+		SoundGroup group = instance.getGroup();
+		if (group != null) {
+			group.voices--;
+			instance.setGroup(null);
+		}
+	}
+
+	/**
+	 * Stop all sounds of given group.
+	 * 
+	 * @throws IllegalStateException if the group belongs to another player
+	 */
+	public void stop(SoundGroup group) {
+		if (group.owner != this && group.owner != null)
+			throw new IllegalStateException("Sound group " + group + " belongs to another player");
+		Array<SpatializedSound<T>> active = this.active;
+		for (int i = 0, n = active.size; i < n; i++) {
+			SpatializedSound<T> instance = active.get(i);
+			// Freed on next update
+			if (instance.getGroup() == group && instance.getSound() != null)
+				instance.stop();
+		}
+	}
+
+	/**
+	 * Pause all sounds of given group, sounds played in it afterwards starting
+	 * paused until {@link #resume(SoundGroup)}.
+	 * 
+	 * @throws IllegalStateException if the group belongs to another player
+	 */
+	public void pause(SoundGroup group) {
+		addGroup(group);
+		group.setPaused(true);
+		Array<SpatializedSound<T>> active = this.active;
+		for (int i = 0, n = active.size; i < n; i++) {
+			SpatializedSound<T> instance = active.get(i);
+			if (instance.getGroup() == group && instance.getSound() != null)
+				instance.pause();
+		}
+	}
+
+	/** @throws IllegalStateException if the group belongs to another player */
+	public void resume(SoundGroup group) {
+		addGroup(group);
+		group.setPaused(false);
+		Array<SpatializedSound<T>> active = this.active;
+		for (int i = 0, n = active.size; i < n; i++) {
+			SpatializedSound<T> instance = active.get(i);
+			if (instance.getGroup() == group && instance.getSound() != null)
+				instance.resume();
+		}
+	}
+
+	/** Tell whether given handle still refers to a playing (possibly paused) sound. */
+	public boolean isPlaying(long handle) {
+		return resolve(handle) != null;
 	}
 
-	public void stop(long id) {
-		SpatializedSound<T> sound = sounds.get(id);
+	public void stop(long handle) {
+		SpatializedSound<T> sound = resolve(handle);
 
 		if (sound != null) {
+			// Freed on next update
 			sound.stop();
 		}
 	}
 
-	public void pause(long id) {
-		SpatializedSound<T> sound = sounds.get(id);
+	public void setPosition(long handle, T position) {
+		SpatializedSound<T> sound = resolve(handle);
+
+		if (sound != null) {
+			sound.setPosition(position);
+		}
+	}
+
+	/** Set the velocity of given sound's emitter, for Doppler effect. */
+	public void setVelocity(long handle, T velocity) {
+		SpatializedSound<T> sound = resolve(handle);
+
+		if (sound != null) {
+			sound.setVelocity(velocity);
+		}
+	}
+
+	/** Change the intrinsic volume given at {@link #play(Object, SfxSound, float, float, boolean, int) play} time. */
+	public void setIntrinsicVolume(long handle, float intrinsicVolume) {
+		SpatializedSound<T> sound = resolve(handle);
+
+		if (sound != null) {
+			sound.setIntrinsicVolume(intrinsicVolume);
+		}
+	}
+
+	public void pause(long handle) {
+		SpatializedSound<T> sound = resolve(handle);
 
 		if (sound != null) {
 			sound.pause();
 		}
 	}
 
-	public void resume(long id) {
-		SpatializedSound<T> sound = sounds.get(id);
+	public void resume(long handle) {
+		SpatializedSound<T> sound = resolve(handle);
 
 		if (sound != null) {
 			sound.resume();
@@ -0,0 +1,51 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+/**
+ * Spatializer able to tell whether a sound instance needs to be spatialized
+ * again, allowing {@link SpatializedSoundPlayer} to skip stationary emitters
+ * as long as the listener does not move either.
+ */
+public interface TrackingSpatializer<T> extends Spatializer<T> {
+
+	/**
+	 * Get the revision of the listener state (center, ranges...). It must
+	 * change every time spatialization results might change for a stationary
+	 * emitter.
+	 * 
+	 * @return the current listener revision
+	 */
+	int getRevision();
+
+	/**
+	 * Tell whether given instance moved since it was last spatialized.
+	 * 
+	 * @param instance
+	 *            the instance to check
+	 * @return true if the instance has to be spatialized again
+	 */
+	boolean hasMoved(SpatializedSound<T> instance);
+
+}
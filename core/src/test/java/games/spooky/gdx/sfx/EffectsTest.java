@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pools;
+
+public class EffectsTest {
+
+	@Before
+	public void setUp() {
+		// Fresh pool, forgetting what other tests did
+		Effects.setPoolCapacity(FadeIn.class, 2);
+	}
+
+	private static Array<FadeIn> obtain(int count) {
+		Array<FadeIn> effects = new Array<FadeIn>();
+		for (int i = 0; i < count; i++)
+			effects.add(Effects.fadeIn(1f));
+		return effects;
+	}
+
+	private static void free(Array<FadeIn> effects) {
+		for (int i = 0; i < effects.size; i++)
+			effects.get(i).setMusic(null);
+		effects.clear();
+	}
+
+	@Test
+	public void boundsKeptEffects() {
+		free(obtain(4));
+		assertEquals(2, Pools.get(FadeIn.class).getFree());
+	}
+
+	@Test
+	public void prewarmsWithinCapacity() {
+		Effects.prewarm(FadeIn.class, 2);
+		assertEquals(2, Pools.get(FadeIn.class).getFree());
+
+		Array<FadeIn> effects = obtain(2);
+		assertEquals(0, Pools.get(FadeIn.class).getFree());
+		free(effects);
+
+		Effects.prewarm(FadeIn.class, 5);
+		assertEquals(2, Pools.get(FadeIn.class).getFree());
+	}
+
+	@Test
+	public void tracksPeakUsage() {
+		assertEquals(0, Effects.getPeakUsage(FadeIn.class));
+
+		Array<FadeIn> effects = obtain(3);
+		effects.pop().setMusic(null);
+		effects.add(Effects.fadeIn(1f));
+		free(effects);
+		assertEquals(3, Effects.getPeakUsage(FadeIn.class));
+	}
+}
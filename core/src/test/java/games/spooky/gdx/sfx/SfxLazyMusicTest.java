@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+
+import games.spooky.gdx.sfx.headless.HeadlessAudio;
+
+public class SfxLazyMusicTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private HeadlessAudio audio;
+	private AssetManager manager;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		audio = new HeadlessAudio(1f);
+		Gdx.audio = audio;
+		manager = new AssetManager(new FileHandleResolver() {
+			@Override
+			public FileHandle resolve(String fileName) {
+				return new FileHandle(fileName);
+			}
+		});
+		manager.setLoader(SfxMusic.class, new SfxMusicLoader(manager.getFileHandleResolver()));
+	}
+
+	@After
+	public void tearDown() {
+		manager.dispose();
+		Gdx.audio = null;
+	}
+
+	private static SfxMusicLoader.MusicParameters duration(float duration) {
+		SfxMusicLoader.MusicParameters parameters = new SfxMusicLoader.MusicParameters();
+		parameters.duration = duration;
+		return parameters;
+	}
+
+	/** Advance backends, asset manager and given music for given time, frame by frame. */
+	private void run(SfxMusic music, float time) {
+		for (float t = 0f; t < time; t += FRAME) {
+			audio.advance(FRAME);
+			music.update(FRAME);
+		}
+	}
+
+	@Test
+	public void loadsOnDemand() {
+		SfxLazyMusic music = new SfxLazyMusic(manager, "a.ogg", duration(1f));
+		assertEquals(1f, music.getDuration(), 0.0001f);
+		assertEquals(0, manager.getQueuedAssets());
+		assertFalse(manager.isLoaded("a.ogg"));
+
+		music.play();
+		assertTrue(manager.isLoaded("a.ogg"));
+		assertTrue(music.isPlaying());
+		assertTrue(audio.getMusics().first().isPlaying());
+	}
+
+	@Test
+	public void unloadsOncePlayed() {
+		SfxLazyMusic music = new SfxLazyMusic(manager, "a.ogg", duration(1f));
+		music.play();
+		run(music, 1.5f);
+
+		assertFalse(music.isPlaying());
+		assertFalse(manager.isLoaded("a.ogg"));
+		assertEquals(0, manager.getLoadedAssets());
+	}
+
+	@Test
+	public void cancelsPendingLoading() {
+		SfxLazyMusic music = new SfxLazyMusic(manager, "a.ogg", duration(1f));
+		assertFalse(music.isLoaded());
+		assertEquals(1, manager.getQueuedAssets());
+
+		music.stop();
+		assertEquals(0, manager.getQueuedAssets());
+		manager.finishLoading();
+		assertFalse(manager.isLoaded("a.ogg"));
+	}
+
+	@Test
+	public void releasesCancelledLookAhead() {
+		SfxMusicPlaylist playlist = new SfxMusicPlaylist();
+		playlist.addMusic(manager, "a.ogg", duration(1f));
+		playlist.addMusic(manager, "b.ogg", duration(1f));
+		playlist.setLookAhead(0.5f);
+		playlist.play();
+
+		// In the look-ahead window: next music requested, not loaded yet
+		run(playlist, 0.7f);
+		assertEquals(1, manager.getQueuedAssets());
+
+		playlist.stop();
+		assertEquals(0, manager.getQueuedAssets());
+		manager.finishLoading();
+		assertFalse(manager.isLoaded("b.ogg"));
+	}
+
+	@Test
+	public void releasesLookAheadOfRemovedMusic() {
+		SfxMusicPlaylist playlist = new SfxMusicPlaylist();
+		playlist.addMusic(manager, "a.ogg", duration(1f));
+		SfxLazyMusic b = playlist.addMusic(manager, "b.ogg", duration(1f));
+		playlist.addMusic(manager, "c.ogg", duration(1f));
+		playlist.setLookAhead(0.5f);
+		playlist.play();
+		run(playlist, 0.7f);
+
+		playlist.removeMusic(b);
+		manager.finishLoading();
+		assertFalse(manager.isLoaded("b.ogg"));
+	}
+
+	@Test
+	public void preparesLoadedLookAhead() {
+		SfxMusicPlaylist playlist = new SfxMusicPlaylist();
+		SfxLazyMusic a = playlist.addMusic(manager, "a.ogg", duration(1f));
+		SfxLazyMusic b = playlist.addMusic(manager, "b.ogg", duration(1f));
+		playlist.setLookAhead(0.5f);
+		playlist.play();
+		for (float t = 0f; t < 1.5f; t += FRAME) {
+			manager.update();
+			audio.advance(FRAME);
+			playlist.update(FRAME);
+		}
+
+		assertSame(b, playlist.getCurrentlyPlayed());
+		assertTrue(b.isPlaying());
+		assertFalse(a.isLoaded() && manager.isLoaded("a.ogg"));
+	}
+
+	@Test
+	public void unloadsEverythingOnDispose() {
+		SfxMusicPlaylist playlist = new SfxMusicPlaylist();
+		playlist.addMusic(manager, "a.ogg", duration(1f));
+		playlist.addMusic(manager, "b.ogg", duration(1f));
+		playlist.setLookAhead(0.5f);
+		playlist.play();
+		run(playlist, 0.7f);
+
+		playlist.dispose();
+		manager.finishLoading();
+		assertEquals(0, manager.getLoadedAssets());
+	}
+}
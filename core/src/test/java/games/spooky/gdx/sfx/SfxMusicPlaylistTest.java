@@ -0,0 +1,369 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import games.spooky.gdx.sfx.headless.HeadlessMusic;
+
+public class SfxMusicPlaylistTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private HeadlessMusic first;
+	private HeadlessMusic second;
+	private SfxMusic firstMusic;
+	private SfxMusic secondMusic;
+	private SfxMusicPlaylist playlist;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		first = new HeadlessMusic(1f);
+		second = new HeadlessMusic(1f);
+		firstMusic = new SfxMusicWrapper(first, "first", 1f);
+		secondMusic = new SfxMusicWrapper(second, "second", 1f);
+		playlist = new SfxMusicPlaylist();
+		playlist.addMusic(firstMusic);
+		playlist.addMusic(secondMusic);
+	}
+
+	/** Advance backends and playlist for given time, frame by frame. */
+	private void run(float time) {
+		for (float t = 0f; t < time; t += FRAME) {
+			first.advance(FRAME);
+			second.advance(FRAME);
+			playlist.update(FRAME);
+		}
+	}
+
+	@Test
+	public void playsInOrder() {
+		playlist.play();
+		assertSame(firstMusic, playlist.getCurrentlyPlayed());
+		assertTrue(first.isPlaying());
+
+		run(1.5f);
+		assertSame(secondMusic, playlist.getCurrentlyPlayed());
+		assertTrue(second.isPlaying());
+
+		run(1f);
+		assertFalse(playlist.isPlaying());
+	}
+
+	@Test
+	public void repeats() {
+		playlist.setLooping(true);
+		playlist.play();
+
+		run(2.5f);
+		assertSame(firstMusic, playlist.getCurrentlyPlayed());
+		assertTrue(playlist.isPlaying());
+	}
+
+	@Test
+	public void pausesAndResumes() {
+		playlist.play();
+		run(0.5f);
+		playlist.pause();
+		assertFalse(first.isPlaying());
+
+		playlist.play();
+		assertTrue(first.isPlaying());
+		assertEquals(0.5f, first.getPosition(), 0.05f);
+	}
+
+	@Test
+	public void reportsPlayingMusics() {
+		final SfxFrameStats last = new SfxFrameStats();
+		playlist.setMetrics(new SfxMetrics() {
+			@Override
+			public void report(Object source, SfxFrameStats stats) {
+				last.activeVoices = stats.activeVoices;
+				last.setVolumeCalls = stats.setVolumeCalls;
+				last.failedPlays = stats.failedPlays;
+			}
+		});
+		playlist.play();
+		playlist.setVolume(0.5f);
+		run(FRAME);
+		assertEquals(1, last.activeVoices);
+		assertEquals(1, last.setVolumeCalls);
+		assertEquals(0, last.failedPlays);
+
+		run(FRAME);
+		assertEquals(0, last.setVolumeCalls);
+
+		run(2f);
+		assertEquals(0, last.activeVoices);
+	}
+
+	@Test
+	public void preparesNextMusicAhead() {
+		playlist.setLookAhead(0.3f);
+		playlist.play();
+		run(0.5f);
+		assertEquals(0, second.getCallCount("play"));
+
+		// Opened, silent and paused until needed
+		run(0.25f);
+		assertEquals(1, second.getCallCount("play"));
+		assertFalse(second.isPlaying());
+		assertEquals(0f, second.getVolume(), 0.0001f);
+		assertSame(firstMusic, playlist.getCurrentlyPlayed());
+	}
+
+	@Test
+	public void startsPreparedMusicOnCompletion() {
+		playlist.setLookAhead(0.3f);
+		playlist.play();
+		run(0.9f);
+
+		while (first.isPlaying()) {
+			first.advance(FRAME);
+			second.advance(FRAME);
+			playlist.update(FRAME);
+		}
+
+		// Within the very update noticing the end of first music
+		assertSame(secondMusic, playlist.getCurrentlyPlayed());
+		assertTrue(second.isPlaying());
+		assertEquals(0f, second.getPosition(), 0.0001f);
+		assertEquals(1f, second.getVolume(), 0.0001f);
+		assertEquals(1, second.getCallCount("play") - second.getCallCount("pause"));
+	}
+
+	@Test
+	public void discardsPreparedMusicWhenStopped() {
+		playlist.setLookAhead(0.3f);
+		playlist.play();
+		run(0.8f);
+		assertEquals(1, second.getCallCount("play"));
+
+		playlist.stop();
+		assertFalse(second.isPlaying());
+		assertEquals(1, second.getCallCount("stop"));
+	}
+
+	private static SfxMusicPlaylist shuffled(SfxMusicPlaylist.ShuffleMode mode, SfxMusic... musics) {
+		MathUtils.random.setSeed(42L);
+		SfxMusicPlaylist playlist = new SfxMusicPlaylist();
+		for (SfxMusic music : musics)
+			playlist.addMusic(music);
+		playlist.setShuffleMode(mode);
+		return playlist;
+	}
+
+	private static SfxMusic[] musics(int count) {
+		SfxMusic[] musics = new SfxMusic[count];
+		for (int i = 0; i < count; i++)
+			musics[i] = new SfxMusicWrapper(new HeadlessMusic(1f), "music " + i, 1f);
+		return musics;
+	}
+
+	@Test
+	public void playsEachMusicOncePerRound() {
+		SfxMusic[] musics = musics(4);
+		SfxMusicPlaylist playlist = shuffled(SfxMusicPlaylist.ShuffleMode.BAG, musics);
+		playlist.setLooping(true);
+		playlist.play();
+
+		SfxMusic previous = null;
+		for (int round = 0; round < 5; round++) {
+			ObjectSet<SfxMusic> played = new ObjectSet<SfxMusic>();
+			for (int i = 0; i < musics.length; i++) {
+				SfxMusic music = playlist.getCurrentlyPlayed();
+				assertTrue("Played twice in a round: " + music, played.add(music));
+				assertFalse("Played twice in a row: " + music, music == previous);
+				previous = music;
+				playlist.next();
+			}
+		}
+	}
+
+	@Test
+	public void picksAccordingToWeights() {
+		SfxMusic[] musics = musics(3);
+		SfxMusicPlaylist playlist = shuffled(SfxMusicPlaylist.ShuffleMode.WEIGHTED, musics);
+		playlist.setWeight(musics[0], 3f);
+		playlist.setWeight(musics[2], 0f);
+		playlist.play();
+
+		int[] counts = new int[musics.length];
+		for (int i = 0; i < 400; i++) {
+			SfxMusic music = playlist.getCurrentlyPlayed();
+			for (int j = 0; j < musics.length; j++) {
+				if (musics[j] == music)
+					counts[j]++;
+			}
+			playlist.next();
+		}
+		assertEquals(0, counts[2]);
+		assertEquals(300, counts[0], 40);
+		assertEquals(100, counts[1], 40);
+		assertTrue(playlist.isPlaying());
+	}
+
+	@Test
+	public void avoidsRecentMusics() {
+		SfxMusic[] musics = musics(4);
+		SfxMusicPlaylist playlist = shuffled(SfxMusicPlaylist.ShuffleMode.WEIGHTED, musics);
+		playlist.setNoRepeatWindow(2);
+		playlist.play();
+
+		SfxMusic beforeLast = null, last = null;
+		for (int i = 0; i < 100; i++) {
+			SfxMusic music = playlist.getCurrentlyPlayed();
+			assertFalse(music == last || music == beforeLast);
+			beforeLast = last;
+			last = music;
+			playlist.next();
+		}
+	}
+
+	@Test
+	public void repeatsWhenNothingElseIsLeft() {
+		SfxMusic[] musics = musics(2);
+		SfxMusicPlaylist playlist = shuffled(SfxMusicPlaylist.ShuffleMode.WEIGHTED, musics);
+		playlist.setNoRepeatWindow(5);
+		playlist.play();
+
+		for (int i = 0; i < 10; i++) {
+			playlist.next();
+			assertTrue(playlist.isPlaying());
+		}
+	}
+
+	@Test
+	public void tracksMusicsThroughRemovals() {
+		SfxMusic[] musics = musics(3);
+		SfxMusicPlaylist playlist = shuffled(SfxMusicPlaylist.ShuffleMode.NONE, musics);
+		playlist.addMusic(musics[0]);
+		playlist.setWeight(musics[0], 2f);
+
+		// One occurrence gone, the other one remains with its weight
+		assertTrue(playlist.removeMusic(musics[0]));
+		assertTrue(playlist.containsMusic(musics[0]));
+		assertEquals(2f, playlist.getWeight(musics[0]), 0.0001f);
+		assertEquals(3, playlist.size());
+
+		// Position of current music follows removals before it
+		playlist.play();
+		playlist.next();
+		assertSame(musics[1], playlist.getCurrentlyPlayed());
+		playlist.removeMusic(musics[0]);
+		playlist.next();
+		assertSame(musics[2], playlist.getCurrentlyPlayed());
+
+		assertFalse(playlist.containsMusic(musics[0]));
+		assertEquals(0f, playlist.getWeight(musics[0]), 0.0001f);
+		assertFalse(playlist.removeMusic(musics[0]));
+		assertEquals(2, playlist.size());
+	}
+
+	@Test
+	public void tellsEqualMusicsApart() {
+		HeadlessMusic backend = new HeadlessMusic(1f);
+		SfxMusic music = new SfxMusicWrapper(backend, "same", 1f) {
+			@Override
+			public boolean equals(Object other) {
+				return other instanceof SfxMusicWrapper;
+			}
+
+			@Override
+			public int hashCode() {
+				return 0;
+			}
+		};
+		SfxMusic twin = new SfxMusicWrapper(backend, "same", 1f);
+		SfxMusicPlaylist playlist = shuffled(SfxMusicPlaylist.ShuffleMode.NONE, music, twin);
+
+		assertTrue(playlist.removeMusic(twin));
+		assertTrue(playlist.containsMusic(music));
+		assertFalse(playlist.containsMusic(twin));
+		assertEquals(1, playlist.size());
+	}
+
+	@Test
+	public void tracksContent() {
+		assertTrue(playlist.containsMusic(firstMusic));
+		assertTrue(playlist.removeMusic(firstMusic));
+		assertFalse(playlist.containsMusic(firstMusic));
+		assertFalse(playlist.removeMusic(firstMusic));
+		assertEquals(1, playlist.size());
+	}
+
+	@Test
+	public void tellsPositionThroughContent() {
+		playlist.play();
+		assertEquals(2f, playlist.getDuration(), 0.0001f);
+
+		run(0.5f);
+		assertEquals(0.5f, playlist.getPosition(), 0.05f);
+		run(1f);
+		assertSame(secondMusic, playlist.getCurrentlyPlayed());
+		assertEquals(1.5f, playlist.getPosition(), 0.05f);
+	}
+
+	@Test
+	public void crossfadesNestedPlaylists() {
+		HeadlessMusic third = new HeadlessMusic(1f);
+		SfxMusic thirdMusic = new SfxMusicWrapper(third, "third", 1f);
+		SfxMusicPlaylist outer = new SfxMusicPlaylist();
+		outer.addMusic(playlist);
+		outer.addMusic(thirdMusic);
+		outer.setCrossfade(0.2f);
+		outer.setLookAhead(0.5f);
+		outer.play();
+
+		for (float t = 0f; t < 1.5f; t += FRAME) {
+			first.advance(FRAME);
+			second.advance(FRAME);
+			third.advance(FRAME);
+			outer.update(FRAME);
+		}
+		// Nested playlist is played through before moving on
+		assertSame(playlist, outer.getCurrentlyPlayed());
+		assertSame(secondMusic, playlist.getCurrentlyPlayed());
+
+		for (float t = 0f; t < 0.6f; t += FRAME) {
+			first.advance(FRAME);
+			second.advance(FRAME);
+			third.advance(FRAME);
+			outer.update(FRAME);
+		}
+		assertSame(thirdMusic, outer.getCurrentlyPlayed());
+		assertTrue(third.isPlaying());
+	}
+}
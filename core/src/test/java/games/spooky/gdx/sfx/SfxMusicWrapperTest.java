@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.spooky.gdx.sfx.headless.HeadlessMusic;
+
+public class SfxMusicWrapperTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private HeadlessMusic backend;
+	private SfxMusicWrapper music;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		backend = new HeadlessMusic(10f);
+		music = new SfxMusicWrapper(backend, "music", 10f);
+	}
+
+	@Test
+	public void neverGoesBackwards() {
+		music.setSyncInterval(0.05f);
+		music.play();
+
+		float previous = music.getPosition();
+		for (int frame = 0; frame < 120; frame++) {
+			// Backend falls behind, by less than what gets corrected at once
+			backend.advance(FRAME);
+			if (frame == 30)
+				backend.setPosition(backend.getPosition() - 0.2f);
+			music.update(FRAME);
+
+			float position = music.getPosition();
+			assertTrue("Went from " + previous + " back to " + position, position >= previous);
+			previous = position;
+		}
+
+		// Corrected by now
+		assertEquals(backend.getPosition(), music.getPosition(), 0.01f);
+	}
+
+	@Test
+	public void followsTheBackend() {
+		music.play();
+		for (int frame = 0; frame < 180; frame++) {
+			backend.advance(FRAME * 1.01f);
+			music.update(FRAME);
+		}
+		assertEquals(backend.getPosition(), music.getPosition(), 0.02f);
+	}
+
+	@Test
+	public void snapsAcrossTheLoopPoint() {
+		music.setSyncInterval(0.05f);
+		music.setLooping(true);
+		music.play();
+		for (int frame = 0; frame < 606; frame++) {
+			backend.advance(FRAME);
+			music.update(FRAME);
+		}
+		assertTrue(music.getPosition() < 0.25f);
+
+		// Looks like a drift backwards over the loop point once folded
+		backend.setPosition(7f);
+		for (int frame = 0; frame < 6; frame++) {
+			backend.advance(FRAME);
+			music.update(FRAME);
+		}
+		assertEquals(backend.getPosition(), music.getPosition(), 0.02f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveSyncIntervals() {
+		music.setSyncInterval(0f);
+	}
+}
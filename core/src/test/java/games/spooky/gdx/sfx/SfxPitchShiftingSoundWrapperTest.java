@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+
+public class SfxPitchShiftingSoundWrapperTest {
+
+	@Test
+	public void keepsShiftOfEachInstance() {
+		HeadlessSound backend = new HeadlessSound(1f);
+		SfxPitchShiftingSoundWrapper sound = new SfxPitchShiftingSoundWrapper(backend, "test", 1f, 0.5f, 1.5f);
+
+		long first = sound.play(1f, 1f, 0f);
+		long second = sound.play(1f, 1f, 0f);
+		float firstShift = backend.getPitch(first);
+		float secondShift = backend.getPitch(second);
+		assertTrue(firstShift >= 0.5f && firstShift <= 1.5f);
+
+		// E.g. Doppler effect updated every frame
+		for (int i = 0; i < 10; i++) {
+			sound.setPitch(first, 2f);
+			sound.setPitch(second, 0.5f);
+			assertEquals(2f * firstShift, backend.getPitch(first), 0.0001f);
+			assertEquals(0.5f * secondShift, backend.getPitch(second), 0.0001f);
+		}
+	}
+
+	@Test
+	public void leavesUnknownInstancesUnshifted() {
+		HeadlessSound backend = new HeadlessSound(1f);
+		SfxPitchShiftingSoundWrapper sound = new SfxPitchShiftingSoundWrapper(backend, "test", 1f, 0.5f, 1.5f);
+
+		long id = sound.loop(1f, 1f, 0f);
+		sound.setPitch(id, 2f);
+		assertEquals(2f, backend.getPitch(id), 0.0001f);
+	}
+}
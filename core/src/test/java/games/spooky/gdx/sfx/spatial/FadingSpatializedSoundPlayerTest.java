@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Vector2;
+
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.SilentApplication;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+
+public class FadingSpatializedSoundPlayerTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private HeadlessSound sound;
+	private FadingSpatializedSoundPlayer<Vector2> player;
+	private SomeSoundSpatializer2 spatializer;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		sound = new HeadlessSound(1f);
+		spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(10f);
+		spatializer.setVerticalRange(10f);
+		spatializer.setCenter(0f, 0f, 0f);
+		player = new FadingSpatializedSoundPlayer<Vector2>();
+		player.setSpatializer(spatializer);
+		player.setFadeTime(0.5f);
+	}
+
+	private void run(float time) {
+		for (float t = 0f; t < time; t += FRAME) {
+			sound.advance(FRAME);
+			player.update(FRAME);
+		}
+	}
+
+	@Test
+	public void fadesIn() {
+		player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true, true);
+		player.update(FRAME);
+		assertEquals(0f, sound.getVolume(0L), 0.05f);
+
+		run(1f);
+		assertEquals(0.99f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void fadesInWithinVoiceBudget() {
+		player.setMaxVoices(1);
+		long minor = player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "birds", 1f), 1f, 1f, true, false, 0);
+		long important = player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "alarm", 1f), 1f, 1f, true, true, 1);
+		long refused = player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "wind", 1f), 1f, 1f, true, true, 0);
+		player.update(FRAME);
+
+		assertFalse(player.isPlaying(minor));
+		assertTrue(player.isPlaying(important));
+		assertEquals(-1L, refused);
+		assertEquals(1, sound.getVoiceCount());
+		assertEquals(0f, sound.getVolume(1L), 0.05f);
+
+		run(1f);
+		assertEquals(0.99f, sound.getVolume(1L), 0.0001f);
+	}
+
+	@Test
+	public void recoversFromFadedOutPause() {
+		long handle = player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true, false);
+		run(0.1f);
+		assertEquals(0.99f, sound.getVolume(0L), 0.0001f);
+
+		player.pause(handle);
+		run(0.25f);
+		assertEquals(0.5f, sound.getVolume(0L), 0.05f);
+		run(0.75f);
+		assertTrue(sound.isPaused(0L));
+
+		player.resume(handle);
+		assertTrue(sound.isPlaying(0L));
+		run(0.25f);
+		assertEquals(0.5f, sound.getVolume(0L), 0.05f);
+		run(0.75f);
+		assertEquals(0.99f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void catchesUpWithListenerAfterFade() {
+		long handle = player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true, false);
+		run(0.1f);
+
+		player.pause(handle);
+		run(1f);
+		player.resume(handle);
+		// Listener moves away during fade in
+		spatializer.setCenter(-4f, 0f, 0f);
+		run(1f);
+		assertEquals(0.75f, sound.getVolume(0L), 0.0001f);
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.SfxThrottlingSoundWrapper;
+import games.spooky.gdx.sfx.SilentApplication;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+
+public class PackedSpatializedSoundPlayerTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private PackedSpatializedSoundPlayer player;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		SomeSoundSpatializer2 spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(10f);
+		spatializer.setVerticalRange(10f);
+		spatializer.setCenter(0f, 0f, 0f);
+		player = new PackedSpatializedSoundPlayer(2);
+		player.setSpatializer(spatializer);
+	}
+
+	@Test
+	public void handlesDontDependOnBackendIds() {
+		// Both backends hand out id 0
+		HeadlessSound a = new HeadlessSound(1f);
+		HeadlessSound b = new HeadlessSound(1f);
+		long first = player.play(0f, 0f, new SfxSoundWrapper(a, "a", 1f), 1f, true);
+		long second = player.play(0f, 0f, new SfxSoundWrapper(b, "b", 1f), 1f, true);
+
+		player.pause(second);
+		assertTrue(a.isPlaying(0L));
+		assertTrue(b.isPaused(0L));
+
+		player.stop(first);
+		assertFalse(player.isPlaying(first));
+		assertTrue(player.isPlaying(second));
+		assertEquals(0, a.getVoiceCount());
+		assertEquals(1, b.getVoiceCount());
+	}
+
+	@Test
+	public void handlesSurviveGrowthAndSwaps() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		SfxSoundWrapper loop = new SfxSoundWrapper(sound, "loop", 1f);
+		long[] handles = new long[10];
+		for (int i = 0; i < handles.length; i++)
+			handles[i] = player.play(i, 0f, loop, 1f, true);
+
+		// Last voices get swapped in
+		player.stop(handles[0]);
+		player.stop(handles[3]);
+		player.setPosition(handles[9], 5f, 0f);
+		player.update(FRAME);
+
+		assertEquals(8, player.size());
+		assertEquals(0.75f, sound.getVolume(9L), 0.0001f);
+		for (int i = 0; i < handles.length; i++)
+			assertEquals(i != 0 && i != 3, player.isPlaying(handles[i]));
+	}
+
+	@Test
+	public void staleHandlesAreIgnored() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		SfxSoundWrapper shot = new SfxSoundWrapper(sound, "shot", 0.1f);
+		long first = player.play(0f, 0f, shot);
+		for (int i = 0; i < 10; i++)
+			player.update(FRAME);
+		assertFalse(player.isPlaying(first));
+
+		// Reuses the slot of the first one
+		long second = player.play(0f, 0f, shot);
+		player.stop(first);
+		assertTrue(player.isPlaying(second));
+	}
+
+	@Test
+	public void letsGoOfThrottledSoundsOnStop() {
+		WatchedSound loop = new WatchedSound(new HeadlessSound(1f));
+		player.play(0f, 0f, loop, 1f, true);
+		player.play(0f, 0f, loop, 1f, true);
+		assertEquals(1, loop.listeners);
+
+		player.stop();
+		assertEquals(0, loop.listeners);
+
+		player.play(0f, 0f, loop, 1f, true);
+		assertEquals(1, loop.listeners);
+		player.dispose();
+		assertEquals(0, loop.listeners);
+	}
+
+	@Test
+	public void dropsVoicesStolenByThrottling() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		SfxThrottlingSoundWrapper loop = new SfxThrottlingSoundWrapper(sound, "loop", 1f, 1, 0f,
+				SfxThrottlingSoundWrapper.Policy.STEAL_OLDEST);
+		long first = player.play(0f, 0f, loop, 1f, true);
+		long second = player.play(0f, 0f, loop, 1f, true);
+
+		assertFalse(player.isPlaying(first));
+		assertTrue(player.isPlaying(second));
+		assertEquals(1, player.size());
+
+		player.update(FRAME);
+		assertEquals(1, sound.getVoiceCount());
+	}
+
+	/** Throttled sound keeping count of its stop listeners */
+	private static class WatchedSound extends SfxThrottlingSoundWrapper {
+		int listeners = 0;
+
+		WatchedSound(HeadlessSound sound) {
+			super(sound, "loop", 1f, 1, 0f, SfxThrottlingSoundWrapper.Policy.STEAL_OLDEST);
+		}
+
+		@Override
+		public void addStopListener(StopListener listener) {
+			super.addStopListener(listener);
+			listeners++;
+		}
+
+		@Override
+		public void removeStopListener(StopListener listener) {
+			super.removeStopListener(listener);
+			listeners--;
+		}
+	}
+}
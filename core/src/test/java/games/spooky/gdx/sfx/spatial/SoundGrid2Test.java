@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+public class SoundGrid2Test {
+
+	private SomeSoundSpatializer2 spatializer;
+	private SoundGrid2 grid;
+	private final Array<SpatializedSound<Vector2>> out = new Array<SpatializedSound<Vector2>>();
+
+	@Before
+	public void setUp() {
+		spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(10f);
+		spatializer.setVerticalRange(10f);
+		spatializer.setCenter(0f, 0f, 0f);
+		// Undersized on purpose, so that storage has to grow
+		grid = new SoundGrid2(spatializer, 10f, 4);
+	}
+
+	@Test
+	public void firstQueryFindsEverything() {
+		Array<SpatializedSound<Vector2>> sounds = sounds(50, new RandomXS128(1L));
+		grid.query(out);
+		assertEquals(sounds.size, out.size);
+	}
+
+	@Test
+	public void findsSoundsInRangeAsTheyMove() {
+		RandomXS128 random = new RandomXS128(42L);
+		Array<SpatializedSound<Vector2>> sounds = sounds(300, random);
+		grid.query(out);
+
+		for (int round = 0; round < 200; round++) {
+			for (int i = 0; i < sounds.size; i++) {
+				SpatializedSound<Vector2> sound = sounds.get(i);
+				float roll = random.nextFloat();
+				if (roll < 0.1f) {
+					sound.getPosition().set(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f);
+					grid.update(sound);
+				} else if (roll < 0.15f) {
+					grid.remove(sound);
+				} else if (roll < 0.2f) {
+					grid.update(sound);
+				}
+			}
+
+			spatializer.setCenter(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f, 0f);
+			out.clear();
+			grid.query(out);
+
+			for (int i = 0; i < sounds.size; i++) {
+				SpatializedSound<Vector2> sound = sounds.get(i);
+				int found = count(sound);
+				assertTrue("Found twice", found <= 1);
+				boolean indexed = sound.getIndexKey() != Long.MIN_VALUE;
+				Vector2 position = sound.getPosition();
+				if (indexed && position.dst(spatializer.getCenter().x, spatializer.getCenter().y) <= 10f)
+					assertEquals("Missed sound in range", 1, found);
+				if (!indexed)
+					assertEquals("Found removed sound", 0, found);
+			}
+		}
+	}
+
+	@Test
+	public void clearsEverything() {
+		Array<SpatializedSound<Vector2>> sounds = sounds(50, new RandomXS128(7L));
+		grid.clear();
+		for (int i = 0; i < sounds.size; i++)
+			assertEquals(Long.MIN_VALUE, sounds.get(i).getIndexKey());
+		grid.query(out);
+		assertEquals(0, out.size);
+
+		sounds.first().getPosition().set(0f, 0f);
+		grid.update(sounds.first());
+		grid.query(out);
+		assertEquals(1, out.size);
+	}
+
+	private Array<SpatializedSound<Vector2>> sounds(int count, RandomXS128 random) {
+		Array<SpatializedSound<Vector2>> sounds = new Array<SpatializedSound<Vector2>>();
+		for (int i = 0; i < count; i++) {
+			SpatializedSound<Vector2> sound = new SpatializedSound<Vector2>();
+			sound.setPosition(new Vector2(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f));
+			grid.update(sound);
+			sounds.add(sound);
+		}
+		return sounds;
+	}
+
+	private int count(SpatializedSound<Vector2> sound) {
+		int found = 0;
+		for (int i = 0; i < out.size; i++) {
+			if (out.get(i) == sound)
+				found++;
+		}
+		return found;
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Vector3;
+
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.SilentApplication;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+
+public class SoundSpatializer3Test {
+
+	private static final float FRAME = 1f / 60f;
+
+	private SoundSpatializer3 spatializer;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		spatializer = new SoundSpatializer3();
+	}
+
+	@Test
+	public void attenuatesInversely() {
+		spatializer.setDistanceModel(SoundSpatializer3.DistanceModel.INVERSE);
+		spatializer.setMinDistance(2f);
+		assertEquals(1f, spatializer.attenuation(1f), 0.0001f);
+		assertEquals(0.5f, spatializer.attenuation(4f), 0.0001f);
+
+		spatializer.setRolloff(2f);
+		assertEquals(1f / 3f, spatializer.attenuation(4f), 0.0001f);
+
+		// Stops decreasing beyond max distance
+		spatializer.setMaxDistance(4f);
+		assertEquals(1f / 3f, spatializer.attenuation(100f), 0.0001f);
+	}
+
+	@Test
+	public void attenuatesLinearly() {
+		spatializer.setDistanceModel(SoundSpatializer3.DistanceModel.LINEAR);
+		spatializer.setMinDistance(1f);
+		spatializer.setMaxDistance(11f);
+		assertEquals(1f, spatializer.attenuation(0.5f), 0.0001f);
+		assertEquals(0.5f, spatializer.attenuation(6f), 0.0001f);
+		assertEquals(0f, spatializer.attenuation(11f), 0.0001f);
+		assertEquals(0f, spatializer.attenuation(100f), 0.0001f);
+
+		spatializer.setRolloff(0.5f);
+		assertEquals(0.75f, spatializer.attenuation(6f), 0.0001f);
+	}
+
+	@Test
+	public void attenuatesExponentially() {
+		spatializer.setDistanceModel(SoundSpatializer3.DistanceModel.EXPONENTIAL);
+		spatializer.setMinDistance(1f);
+		spatializer.setRolloff(2f);
+		assertEquals(1f, spatializer.attenuation(0.5f), 0.0001f);
+		assertEquals(0.25f, spatializer.attenuation(2f), 0.0001f);
+
+		spatializer.setMaxDistance(4f);
+		assertEquals(1f / 16f, spatializer.attenuation(100f), 0.0001f);
+	}
+
+	@Test
+	public void survivesZeroMinDistance() {
+		spatializer.setMinDistance(0f);
+		assertTrue(spatializer.getMinDistance() > 0f);
+
+		for (SoundSpatializer3.DistanceModel model : SoundSpatializer3.DistanceModel.values()) {
+			spatializer.setDistanceModel(model);
+			for (float distance = 0f; distance <= 10f; distance += 0.5f) {
+				float attenuation = spatializer.attenuation(distance);
+				assertTrue(model + " at " + distance + ": " + attenuation, attenuation >= 0f && attenuation <= 1f);
+			}
+		}
+	}
+
+	@Test
+	public void pansAlongListenerRight() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		SpatializedSoundPlayer<Vector3> player = new SpatializedSoundPlayer<Vector3>();
+		player.setSpatializer(spatializer);
+		player.play(new Vector3(5f, 0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		assertEquals(1f, sound.getPan(0L), 0.0001f);
+
+		// Turned around
+		spatializer.setOrientation(new Vector3(0f, 0f, 1f), new Vector3(0f, 1f, 0f));
+		player.update(FRAME);
+		assertEquals(-1f, sound.getPan(0L), 0.0001f);
+	}
+
+	@Test
+	public void survivesDegenerateOrientation() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		SpatializedSoundPlayer<Vector3> player = new SpatializedSoundPlayer<Vector3>();
+		player.setSpatializer(spatializer);
+		player.play(new Vector3(5f, 0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+
+		// Looking up, right vector kept
+		spatializer.setOrientation(new Vector3(0f, 1f, 0f), new Vector3(0f, 1f, 0f));
+		player.update(FRAME);
+		assertFalse(Float.isNaN(sound.getPan(0L)));
+		assertEquals(1f, sound.getPan(0L), 0.0001f);
+
+		// Looking along the previous right vector as well
+		spatializer.setOrientation(new Vector3(1f, 0f, 0f), new Vector3(1f, 0f, 0f));
+		player.update(FRAME);
+		assertFalse(Float.isNaN(sound.getPan(0L)));
+		assertFalse(Float.isNaN(sound.getVolume(0L)));
+		assertEquals(1f, spatializer.getDirection().dot(spatializer.getUp()), 0.0001f);
+	}
+}
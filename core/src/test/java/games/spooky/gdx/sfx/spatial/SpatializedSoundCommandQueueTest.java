@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Vector2;
+
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.SilentApplication;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+
+public class SpatializedSoundCommandQueueTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private HeadlessSound sound;
+	private SpatializedSoundPlayer<Vector2> player;
+	private SpatializedSoundCommandQueue<Vector2> queue;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		sound = new HeadlessSound(1f);
+		SomeSoundSpatializer2 spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(10f);
+		spatializer.setVerticalRange(10f);
+		spatializer.setCenter(0f, 0f, 0f);
+		player = new SpatializedSoundPlayer<Vector2>();
+		player.setSpatializer(spatializer);
+		queue = new SpatializedSoundCommandQueue<Vector2>(4);
+		player.setCommandQueue(queue);
+	}
+
+	@Test
+	public void returnsHandlesOfQueuedSounds() {
+		long handle = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		assertNotEquals(-1L, handle);
+		assertFalse(player.isPlaying(handle));
+
+		player.update(FRAME);
+		assertTrue(player.isPlaying(handle));
+
+		assertTrue(queue.move(handle, new Vector2(5f, 0f)));
+		player.update(FRAME);
+		assertEquals(0.75f, sound.getVolume(0L), 0.0001f);
+
+		assertTrue(queue.stop(handle));
+		player.update(FRAME);
+		assertFalse(player.isPlaying(handle));
+		assertFalse(sound.isPlaying(0L));
+	}
+
+	@Test
+	public void stopsSoundsBeforeTheyStarted() {
+		long handle = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		queue.stop(handle);
+		player.update(FRAME);
+
+		assertFalse(player.isPlaying(handle));
+		assertEquals(0, sound.getVoiceCount());
+	}
+
+	@Test
+	public void keepsHandlesDistinct() {
+		long first = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "a", 1f), 1f, true);
+		long second = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "b", 1f), 1f, true);
+		assertNotEquals(first, second);
+
+		player.update(FRAME);
+		player.stop(first);
+		long third = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "c", 1f), 1f, true);
+		assertNotEquals(first, third);
+		player.update(FRAME);
+
+		assertFalse(player.isPlaying(first));
+		assertTrue(player.isPlaying(second));
+		assertTrue(player.isPlaying(third));
+	}
+
+	@Test
+	public void dropsPlaysWhenFull() {
+		for (int i = 0; i < queue.getCapacity(); i++)
+			assertNotEquals(-1L, queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true));
+		assertEquals(-1L, queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true));
+
+		player.update(FRAME);
+		assertEquals(queue.getCapacity(), sound.getVoiceCount());
+		assertNotEquals(-1L, queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true));
+	}
+
+	@Test
+	public void survivesFailingCommands() {
+		SoundGroup group = new SoundGroup("ui");
+		SpatializedSoundPlayer<Vector2> other = new SpatializedSoundPlayer<Vector2>();
+		other.setSpatializer(player.getSpatializer());
+		other.play(new Vector2(), new SfxSoundWrapper(sound, "click", 1f), group);
+
+		queue.play(new Vector2(), new SfxSoundWrapper(sound, "click", 1f), 1f, 1f, false, 0, group);
+		try {
+			player.update(FRAME);
+			fail("Group of another player got played");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+
+		long handle = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		assertTrue(player.isPlaying(handle));
+	}
+
+	@Test
+	public void releasesReservedHandlesWhenSwapped() {
+		long queued = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.setCommandQueue(null);
+
+		// Sent before the swap, played anyway
+		assertTrue(player.isPlaying(queued));
+		assertEquals(-1L, queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true));
+
+		// Slots reserved for the queue are free again
+		for (int i = 1; i < queue.getCapacity(); i++) {
+			long handle = player.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+			assertTrue((int) handle < queue.getCapacity());
+		}
+		assertEquals(queue.getCapacity(), player.slots.size);
+	}
+
+	@Test
+	public void servesAnotherPlayerOnceReleased() {
+		SpatializedSoundPlayer<Vector2> other = new SpatializedSoundPlayer<Vector2>();
+		other.setSpatializer(player.getSpatializer());
+		player.setCommandQueue(new SpatializedSoundCommandQueue<Vector2>(4));
+		other.setCommandQueue(queue);
+
+		long handle = queue.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		other.update(FRAME);
+		assertFalse(player.isPlaying(handle));
+		assertTrue(other.isPlaying(handle));
+
+		other.dispose();
+		assertNull(other.getCommandQueue());
+		assertFalse(other.isPlaying(handle));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void servesASinglePlayer() {
+		new SpatializedSoundPlayer<Vector2>().setCommandQueue(queue);
+	}
+}
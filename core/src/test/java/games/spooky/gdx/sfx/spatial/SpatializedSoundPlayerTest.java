@@ -0,0 +1,677 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+import games.spooky.gdx.sfx.SfxFrameStats;
+import games.spooky.gdx.sfx.SfxMetrics;
+import games.spooky.gdx.sfx.SfxSoundWrapper;
+import games.spooky.gdx.sfx.SfxThrottlingSoundWrapper;
+import games.spooky.gdx.sfx.SilentApplication;
+import games.spooky.gdx.sfx.headless.HeadlessSound;
+
+public class SpatializedSoundPlayerTest {
+
+	private static final float FRAME = 1f / 60f;
+
+	private HeadlessSound sound;
+	private SpatializedSoundPlayer<Vector2> player;
+	private SomeSoundSpatializer2 spatializer;
+
+	@Before
+	public void setUp() {
+		SilentApplication.install();
+
+		sound = new HeadlessSound(1f);
+		spatializer = new SomeSoundSpatializer2();
+		spatializer.setHorizontalRange(10f);
+		spatializer.setVerticalRange(10f);
+		spatializer.setCenter(0f, 0f, 0f);
+		player = new SpatializedSoundPlayer<Vector2>();
+		player.setSpatializer(spatializer);
+	}
+
+	@Test
+	public void attenuatesWithDistance() {
+		player.play(new Vector2(0f, 0f), new SfxSoundWrapper(sound, "near", 1f), 1f, true);
+		player.play(new Vector2(5f, 0f), new SfxSoundWrapper(sound, "far", 1f), 1f, true);
+		player.update(FRAME);
+
+		assertEquals(1f, sound.getVolume(0L), 0.0001f);
+		assertEquals(0.75f, sound.getVolume(1L), 0.0001f);
+		assertEquals(0.5f, sound.getPan(1L), 0.0001f);
+	}
+
+	@Test
+	public void followsTheListener() {
+		player.play(new Vector2(5f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+
+		spatializer.setCenter(5f, 0f, 0f);
+		player.update(FRAME);
+		assertEquals(1f, sound.getVolume(0L), 0.0001f);
+		assertEquals(0f, sound.getPan(0L), 0.0001f);
+	}
+
+	@Test
+	public void forgetsOverSounds() {
+		long handle = player.play(new Vector2(), new SfxSoundWrapper(sound, "shot", 0.1f));
+		assertTrue(player.isPlaying(handle));
+
+		for (int i = 0; i < 10; i++)
+			player.update(FRAME);
+		assertFalse(player.isPlaying(handle));
+	}
+
+	@Test
+	public void staleHandlesAreIgnored() {
+		SfxSoundWrapper loop = new SfxSoundWrapper(sound, "loop", 1f);
+		long first = player.play(new Vector2(), loop, 1f, true);
+		player.stop(first);
+		player.update(FRAME);
+
+		// Reuses the slot of the first one
+		long second = player.play(new Vector2(), loop, 1f, true);
+		player.stop(first);
+		player.update(FRAME);
+
+		assertFalse(player.isPlaying(first));
+		assertTrue(player.isPlaying(second));
+		assertEquals(1, sound.getVoiceCount());
+	}
+
+	@Test
+	public void groupsBelongToASinglePlayer() {
+		SoundGroup sfx = new SoundGroup("sfx");
+		SoundGroup ui = new SoundGroup("ui");
+		SpatializedSoundPlayer<Vector2> other = new SpatializedSoundPlayer<Vector2>();
+		other.setSpatializer(spatializer);
+		other.play(new Vector2(), new SfxSoundWrapper(sound, "click", 1f), ui);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "shot", 1f), sfx);
+
+		try {
+			player.play(new Vector2(), new SfxSoundWrapper(sound, "click", 1f), ui);
+			fail("Group of another player got played");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		assertEquals(2, sound.getVoiceCount());
+
+		player.update(FRAME);
+		other.update(FRAME);
+		assertEquals(1, sfx.getVoiceCount());
+		assertEquals(1, ui.getVoiceCount());
+	}
+
+	@Test
+	public void sendsOneCallPerFrame() {
+		long handle = player.play(new Vector2(2f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		sound.resetCallCounts();
+
+		player.setIntrinsicVolume(handle, 0.5f);
+		player.setIntrinsicVolume(handle, 0.8f);
+		player.setPosition(handle, new Vector2(3f, 0f));
+		player.setPosition(handle, new Vector2(4f, 0f));
+		player.update(FRAME);
+
+		// Volume goes along with panning
+		assertEquals(1, sound.getCallCount("setPan"));
+		assertEquals(0, sound.getCallCount("setVolume"));
+		assertEquals(0.8f * 0.84f, sound.getVolume(0L), 0.0001f);
+		assertEquals(0.4f, sound.getPan(0L), 0.0001f);
+
+		SpatializedSound<Vector2> instance = player.resolve(handle);
+		instance.setPitch(1.5f);
+		instance.setPitch(1.2f);
+		instance.setVolume(0.3f);
+		instance.setVolume(0.2f);
+		instance.flush(0f);
+		assertEquals(1, sound.getCallCount("setPitch"));
+		assertEquals(1, sound.getCallCount("setVolume"));
+		assertEquals(1.2f, sound.getPitch(0L), 0.0001f);
+		assertEquals(0.8f * 0.2f, sound.getVolume(0L), 0.0001f);
+
+		// Nothing left to send
+		sound.resetCallCounts();
+		instance.flush(0f);
+		player.update(FRAME);
+		assertEquals(0, sound.getCallCount("setVolume") + sound.getCallCount("setPan") + sound.getCallCount("setPitch"));
+	}
+
+	@Test
+	public void skipsChangesUnderThreshold() {
+		player.setChangeThreshold(0.05f);
+		player.setVirtualThreshold(-1f);
+		long handle = player.play(new Vector2(2f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		sound.resetCallCounts();
+
+		player.setPosition(handle, new Vector2(2.1f, 0f));
+		player.update(FRAME);
+		assertEquals(0, sound.getCallCount("setVolume") + sound.getCallCount("setPan"));
+		assertEquals(0.96f, sound.getVolume(0L), 0.0001f);
+
+		player.setPosition(handle, new Vector2(3f, 0f));
+		player.update(FRAME);
+		assertEquals(1, sound.getCallCount("setPan"));
+		assertEquals(0.3f, sound.getPan(0L), 0.0001f);
+
+		// Silence always gets through
+		player.setPosition(handle, new Vector2(9.9f, 0f));
+		player.update(FRAME);
+		sound.resetCallCounts();
+		player.setPosition(handle, new Vector2(10f, 0f));
+		player.update(FRAME);
+		assertEquals(1, sound.getCallCount("setVolume"));
+		assertEquals(0f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void virtualizesInaudibleLoops() {
+		long handle = player.play(new Vector2(20f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+
+		assertTrue(player.isPlaying(handle));
+		assertTrue(player.resolve(handle).isVirtual());
+		assertFalse(sound.isPlaying(0L));
+		assertEquals(0, sound.getVoiceCount());
+	}
+
+	@Test
+	public void keepsTimeWhileVirtual() {
+		long handle = player.play(new Vector2(20f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		run(0.5f);
+		assertEquals(0.5f, player.resolve(handle).elapsed, 2f * FRAME);
+
+		// Loops on, still virtual
+		run(0.75f);
+		assertTrue(player.resolve(handle).isVirtual());
+		assertEquals(0.25f, player.resolve(handle).elapsed, 2f * FRAME);
+	}
+
+	@Test
+	public void devirtualizesOnceAudible() {
+		long handle = player.play(new Vector2(20f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		run(1.25f);
+		float elapsed = player.resolve(handle).elapsed;
+
+		player.setPosition(handle, new Vector2(1f, 0f));
+		player.update(FRAME);
+		SpatializedSound<Vector2> instance = player.resolve(handle);
+		assertFalse(instance.isVirtual());
+		assertEquals(1, sound.getVoiceCount());
+		assertEquals(0.99f, sound.getVolume(instance.getSoundId()), 0.0001f);
+
+		// Simulated time goes on, while the backend loop starts over
+		assertEquals(elapsed + FRAME, instance.elapsed, 0.0001f);
+		assertEquals(0f, sound.getElapsed(instance.getSoundId()), 0.0001f);
+		assertTrue(sound.isLooping(instance.getSoundId()));
+
+		sound.advance(FRAME);
+		assertEquals(FRAME, sound.getElapsed(instance.getSoundId()), 0.0001f);
+	}
+
+	@Test
+	public void virtualizesLoopsOnly() {
+		long handle = player.play(new Vector2(20f, 0f), new SfxSoundWrapper(sound, "shot", 1f));
+		player.update(FRAME);
+
+		assertFalse(player.resolve(handle).isVirtual());
+		assertTrue(sound.isPlaying(0L));
+	}
+
+	@Test
+	public void stealsLowestPriorityVoice() {
+		player.setMaxVoices(2);
+		long important = player.play(new Vector2(), new SfxSoundWrapper(sound, "alarm", 1f), 1f, 1f, true, 1);
+		long minor = player.play(new Vector2(), new SfxSoundWrapper(sound, "birds", 1f), 1f, 1f, true, 0);
+		long other = player.play(new Vector2(5f, 0f), new SfxSoundWrapper(sound, "siren", 1f), 1f, 1f, true, 1);
+		player.update(FRAME);
+
+		assertTrue(player.isPlaying(important));
+		assertFalse(player.isPlaying(minor));
+		assertTrue(player.isPlaying(other));
+		assertEquals(2, sound.getVoiceCount());
+	}
+
+	@Test
+	public void stealsQuietestVoiceAmongEqualPriorities() {
+		player.setMaxVoices(2);
+		long near = player.play(new Vector2(1f, 0f), new SfxSoundWrapper(sound, "near", 1f), 1f, true);
+		long far = player.play(new Vector2(5f, 0f), new SfxSoundWrapper(sound, "far", 1f), 1f, true);
+		long other = player.play(new Vector2(2f, 0f), new SfxSoundWrapper(sound, "other", 1f), 1f, true);
+		player.update(FRAME);
+
+		assertTrue(player.isPlaying(near));
+		assertFalse(player.isPlaying(far));
+		assertTrue(player.isPlaying(other));
+	}
+
+	@Test
+	public void keepsVoicesOfHigherPriority() {
+		player.setMaxVoices(1);
+		long important = player.play(new Vector2(5f, 0f), new SfxSoundWrapper(sound, "alarm", 1f), 1f, 1f, true, 1);
+		long minor = player.play(new Vector2(), new SfxSoundWrapper(sound, "birds", 1f), 1f, 1f, true, 0);
+		player.update(FRAME);
+
+		assertEquals(-1L, minor);
+		assertTrue(player.isPlaying(important));
+		assertEquals(1, sound.getVoiceCount());
+	}
+
+	@Test
+	public void prewarmsUpToCapacity() {
+		SpatializedSoundPlayer<Vector2> player = new SpatializedSoundPlayer<Vector2>(8);
+		assertEquals(8, player.pool.getFree());
+
+		player.prewarm(20);
+		assertEquals(8, player.pool.getFree());
+	}
+
+	@Test
+	public void stealsOnceAtCapacity() {
+		SpatializedSoundPlayer<Vector2> player = new SpatializedSoundPlayer<Vector2>(2);
+		player.setSpatializer(spatializer);
+		long important = player.play(new Vector2(), new SfxSoundWrapper(sound, "alarm", 1f), 1f, 1f, true, 1);
+		long silent = player.play(new Vector2(20f, 0f), new SfxSoundWrapper(sound, "birds", 1f), 1f, 1f, true, 0);
+		long other = player.play(new Vector2(), new SfxSoundWrapper(sound, "siren", 1f), 1f, 1f, true, 0);
+		player.update(FRAME);
+
+		// Virtual voices count against capacity
+		assertTrue(player.isPlaying(important));
+		assertFalse(player.isPlaying(silent));
+		assertTrue(player.isPlaying(other));
+		assertEquals(2, player.getPeakVoices());
+		assertEquals(0, player.pool.getFree());
+	}
+
+	@Test
+	public void tracksPeakVoices() {
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "a", 1f), 1f, true);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "b", 1f), 1f, true);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "c", 1f), 1f, true);
+		player.stop();
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "d", 1f), 1f, true);
+		player.update(FRAME);
+
+		assertEquals(3, player.getPeakVoices());
+		assertEquals(2, player.pool.getFree());
+	}
+
+	@Test
+	public void appliesGroupVolume() {
+		SoundGroup ambience = new SoundGroup("ambience");
+		ambience.setVolume(0.5f);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "wind", 1f), 1f, 1f, true, 0, ambience);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "shot", 1f), 1f, true);
+		player.update(FRAME);
+		assertEquals(0.5f, sound.getVolume(0L), 0.0001f);
+		assertEquals(1f, sound.getVolume(1L), 0.0001f);
+
+		ambience.setVolume(0.25f);
+		player.update(FRAME);
+		assertEquals(0.25f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void ducksWhileTriggerPlays() {
+		SoundGroup music = new SoundGroup("music");
+		SoundGroup voice = new SoundGroup("voice");
+		music.setDucking(voice, 0.5f, 0.5f);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "theme", 10f), 1f, 1f, true, 0, music);
+		long line = player.play(new Vector2(), new SfxSoundWrapper(sound, "line", 10f), 1f, 1f, true, 0, voice);
+		run(0.25f);
+		assertTrue(music.isDucked());
+		assertEquals(0.75f, sound.getVolume(0L), 0.05f);
+		run(0.5f);
+		assertEquals(0.5f, sound.getVolume(0L), 0.0001f);
+
+		player.stop(line);
+		run(0.75f);
+		assertFalse(music.isDucked());
+		assertEquals(1f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void recoversWhenDuckingGetsDisabled() {
+		SoundGroup music = new SoundGroup("music");
+		SoundGroup voice = new SoundGroup("voice");
+		music.setDucking(voice, 0.5f, 0.5f);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "theme", 10f), 1f, 1f, true, 0, music);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "line", 10f), 1f, 1f, true, 0, voice);
+		run(0.75f);
+		assertEquals(0.5f, sound.getVolume(0L), 0.0001f);
+
+		// Trigger still playing, volume goes back within the fade time
+		music.setDucking(null, 1f, 0.5f);
+		run(0.75f);
+		assertFalse(music.isDucked());
+		assertEquals(1f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void pausesAndStopsGroups() {
+		SoundGroup sfx = new SoundGroup("sfx");
+		SoundGroup ui = new SoundGroup("ui");
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "engine", 1f), 1f, 1f, true, 0, sfx);
+		long click = player.play(new Vector2(), new SfxSoundWrapper(sound, "click", 1f), 1f, 1f, true, 0, ui);
+		player.update(FRAME);
+
+		player.pause(sfx);
+		assertTrue(sound.isPaused(0L));
+		assertFalse(sound.isPaused(1L));
+
+		// Played paused, till the group resumes
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "horn", 1f), 1f, 1f, true, 0, sfx);
+		player.update(FRAME);
+		assertTrue(sound.isPaused(2L));
+
+		player.resume(sfx);
+		assertFalse(sound.isPaused(0L));
+		assertFalse(sound.isPaused(2L));
+
+		player.stop(sfx);
+		player.update(FRAME);
+		assertEquals(0, sfx.getVoiceCount());
+		assertTrue(player.isPlaying(click));
+		assertEquals(1, sound.getVoiceCount());
+	}
+
+	@Test
+	public void pausesAndStopsOwnGroupsOnly() {
+		SoundGroup ui = new SoundGroup("ui");
+		SpatializedSoundPlayer<Vector2> other = new SpatializedSoundPlayer<Vector2>();
+		other.setSpatializer(spatializer);
+		other.play(new Vector2(), new SfxSoundWrapper(sound, "click", 1f), 1f, 1f, true, 0, ui);
+
+		try {
+			player.pause(ui);
+			fail("Group of another player got paused");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		try {
+			player.stop(ui);
+			fail("Group of another player got stopped");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		assertFalse(ui.isPaused());
+		assertFalse(sound.isPaused(0L));
+		assertTrue(sound.isPlaying(0L));
+	}
+
+	@Test
+	public void occludesNewVoicesAtOnce() {
+		CountingOccluder occluder = new CountingOccluder(0.5f);
+		player.setOccluder(occluder, 1);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		assertEquals(1, occluder.queried.size);
+
+		player.update(FRAME);
+		assertEquals(0.5f, sound.getVolume(0L), 0.0001f);
+	}
+
+	@Test
+	public void spreadsOcclusionQueriesOverFrames() {
+		CountingOccluder occluder = new CountingOccluder(1f);
+		player.setOccluder(occluder, 2);
+		Vector2 a = new Vector2(1f, 0f), b = new Vector2(2f, 0f), c = new Vector2(3f, 0f);
+		player.play(a, new SfxSoundWrapper(sound, "a", 1f), 1f, true);
+		player.play(b, new SfxSoundWrapper(sound, "b", 1f), 1f, true);
+		player.play(c, new SfxSoundWrapper(sound, "c", 1f), 1f, true);
+		occluder.queried.clear();
+
+		// Budget per frame, every voice in turn
+		player.update(FRAME);
+		assertEquals(2, occluder.queried.size);
+		player.update(FRAME);
+		assertEquals(4, occluder.queried.size);
+		assertTrue(occluder.queried.contains(a, true));
+		assertTrue(occluder.queried.contains(b, true));
+		assertTrue(occluder.queried.contains(c, true));
+		assertFalse(occluder.queried.get(0) == occluder.queried.get(1));
+		assertFalse(occluder.queried.get(2) == occluder.queried.get(3));
+	}
+
+	@Test
+	public void cachesOcclusionBetweenTurns() {
+		CountingOccluder occluder = new CountingOccluder(1f);
+		player.setOccluder(occluder, 1);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "a", 1f), 1f, true);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "b", 1f), 1f, true);
+		player.update(FRAME);
+		player.update(FRAME);
+
+		// One voice gets the new result per frame, the other keeps its cached one
+		occluder.transmission = 0.5f;
+		player.update(FRAME);
+		assertEquals(1.5f, sound.getVolume(0L) + sound.getVolume(1L), 0.0001f);
+		player.update(FRAME);
+		assertEquals(0.5f, sound.getVolume(0L), 0.0001f);
+		assertEquals(0.5f, sound.getVolume(1L), 0.0001f);
+
+		// Back to unobstructed without occluder
+		player.setOccluder(null, 0);
+		player.update(FRAME);
+		assertEquals(1f, sound.getVolume(0L), 0.0001f);
+		assertEquals(1f, sound.getVolume(1L), 0.0001f);
+	}
+
+	@Test
+	public void reportsBackendCalls() {
+		RecordingMetrics metrics = new RecordingMetrics();
+		player.setMetrics(metrics);
+		long handle = player.play(new Vector2(2f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		sound.resetCallCounts();
+		metrics.reports = 0;
+
+		player.setPosition(handle, new Vector2(4f, 0f));
+		player.setIntrinsicVolume(handle, 0.5f);
+		player.update(FRAME);
+		assertEquals(1, metrics.reports);
+		assertEquals(sound.getCallCount("setPan"), metrics.last.setPanCalls);
+		assertEquals(sound.getCallCount("setVolume"), metrics.last.setVolumeCalls);
+		assertEquals(1, metrics.last.setPanCalls + metrics.last.setVolumeCalls);
+
+		// Counters start over every frame
+		player.update(FRAME);
+		assertEquals(0, metrics.last.setPanCalls + metrics.last.setVolumeCalls + metrics.last.setPitchCalls);
+	}
+
+	@Test
+	public void reportsVoicesAndFailedPlays() {
+		RecordingMetrics metrics = new RecordingMetrics();
+		player.setMetrics(metrics);
+		player.setMaxVoices(2);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "a", 1f), 1f, 1f, true, 1);
+		// Virtual at once, leaving its voice to the next one
+		player.play(new Vector2(20f, 0f), new SfxSoundWrapper(sound, "b", 1f), 1f, 1f, true, 1);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "c", 1f), 1f, 1f, true, 0);
+		player.play(new Vector2(), new SfxSoundWrapper(sound, "d", 1f), 1f, 1f, true, -1);
+		player.update(FRAME);
+
+		assertEquals(3, metrics.last.activeVoices);
+		assertEquals(1, metrics.last.virtualVoices);
+		assertEquals(3, metrics.last.peakVoices);
+		assertEquals(1, metrics.last.failedPlays);
+
+		player.update(FRAME);
+		assertEquals(0, metrics.last.failedPlays);
+	}
+
+	@Test
+	public void dropsInstancesStolenByThrottling() {
+		SfxThrottlingSoundWrapper loop = new SfxThrottlingSoundWrapper(sound, "loop", 1f, 1, 0f,
+				SfxThrottlingSoundWrapper.Policy.STEAL_OLDEST);
+		long first = player.play(new Vector2(), loop, 1f, true);
+		long second = player.play(new Vector2(), loop, 1f, true);
+
+		assertFalse(player.isPlaying(first));
+		assertTrue(player.isPlaying(second));
+		assertFalse(sound.isPlaying(0L));
+
+		player.update(FRAME);
+		assertFalse(player.isPlaying(first));
+		assertTrue(player.isPlaying(second));
+		assertEquals(1, sound.getVoiceCount());
+	}
+
+	@Test
+	public void letsGoOfThrottledSoundsOnStop() {
+		WatchedSound loop = new WatchedSound(sound);
+		player.play(new Vector2(), loop, 1f, true);
+		player.play(new Vector2(), loop, 1f, true);
+		assertEquals(1, loop.listeners);
+
+		player.stop();
+		assertEquals(0, loop.listeners);
+
+		player.play(new Vector2(), loop, 1f, true);
+		assertEquals(1, loop.listeners);
+		player.dispose();
+		assertEquals(0, loop.listeners);
+	}
+
+	@Test
+	public void followsVelocityChangedInPlace() {
+		spatializer.setDopplerFactor(1f);
+		Vector2 velocity = new Vector2(-100f, 0f);
+		long handle = player.play(new Vector2(5f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.setVelocity(handle, velocity);
+		player.update(FRAME);
+		assertTrue(sound.getPitch(0L) > 1f);
+
+		velocity.setZero();
+		player.update(FRAME);
+		assertEquals(1f, sound.getPitch(0L), 0.0001f);
+	}
+
+	@Test
+	public void followsVelocityChangedInPlace3() {
+		SoundSpatializer3 spatializer = new SoundSpatializer3();
+		spatializer.setDopplerFactor(1f);
+		SpatializedSoundPlayer<Vector3> player = new SpatializedSoundPlayer<Vector3>();
+		player.setSpatializer(spatializer);
+
+		Vector3 velocity = new Vector3(-100f, 0f, 0f);
+		long handle = player.play(new Vector3(5f, 0f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.setVelocity(handle, velocity);
+		player.update(FRAME);
+		assertTrue(sound.getPitch(0L) > 1f);
+
+		velocity.setZero();
+		player.update(FRAME);
+		assertEquals(1f, sound.getPitch(0L), 0.0001f);
+	}
+
+	@Test
+	public void distantVoicesFollowTheListenerAtOnce() {
+		player.setUpdateIntervals(5f);
+		player.play(new Vector2(8f, 0f), new SfxSoundWrapper(sound, "loop", 1f), 1f, true);
+		player.update(FRAME);
+		player.update(FRAME);
+		assertEquals(0.36f, sound.getVolume(0L), 0.0001f);
+
+		// Not this voice's turn, yet the listener moved
+		spatializer.setCenter(8f, 0f, 0f);
+		player.update(FRAME);
+		assertEquals(1f, sound.getVolume(0L), 0.0001f);
+	}
+
+	private void run(float time) {
+		for (float t = 0f; t < time; t += FRAME) {
+			sound.advance(FRAME);
+			player.update(FRAME);
+		}
+	}
+
+	/** Throttled sound keeping count of its stop listeners */
+	private static class WatchedSound extends SfxThrottlingSoundWrapper {
+		int listeners = 0;
+
+		WatchedSound(HeadlessSound sound) {
+			super(sound, "loop", 1f, 1, 0f, SfxThrottlingSoundWrapper.Policy.STEAL_OLDEST);
+		}
+
+		@Override
+		public void addStopListener(StopListener listener) {
+			super.addStopListener(listener);
+			listeners++;
+		}
+
+		@Override
+		public void removeStopListener(StopListener listener) {
+			super.removeStopListener(listener);
+			listeners--;
+		}
+	}
+
+	/** Occluder remembering the positions it got queried for */
+	private static class CountingOccluder implements Occluder<Vector2> {
+		final Array<Vector2> queried = new Array<Vector2>();
+		float transmission;
+
+		CountingOccluder(float transmission) {
+			this.transmission = transmission;
+		}
+
+		@Override
+		public float getTransmission(Vector2 position) {
+			queried.add(position);
+			return transmission;
+		}
+	}
+
+	/** Keeps a copy of the last stats reported */
+	private static class RecordingMetrics implements SfxMetrics {
+		final SfxFrameStats last = new SfxFrameStats();
+		int reports = 0;
+
+		@Override
+		public void report(Object source, SfxFrameStats stats) {
+			reports++;
+			last.activeVoices = stats.activeVoices;
+			last.virtualVoices = stats.virtualVoices;
+			last.peakVoices = stats.peakVoices;
+			last.setVolumeCalls = stats.setVolumeCalls;
+			last.setPanCalls = stats.setPanCalls;
+			last.setPitchCalls = stats.setPitchCalls;
+			last.failedPlays = stats.failedPlays;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.headless;
+
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.audio.AudioDevice;
+import com.badlogic.gdx.audio.AudioRecorder;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+
+import games.spooky.gdx.sfx.MusicDurationResolver;
+import games.spooky.gdx.sfx.SoundDurationResolver;
+
+/**
+ * Soundless {@link Audio} backend, for tests and benchmarks on boxes with no
+ * audio device. Files are never read: sounds and musics get the duration
+ * registered for their path, or a default one. Also resolves these durations
+ * for {@link games.spooky.gdx.sfx.SfxSoundLoader} and
+ * {@link games.spooky.gdx.sfx.SfxMusicLoader}.
+ * <p>
+ * Usage: {@code Gdx.audio = new HeadlessAudio(1f);}, then
+ * {@link #advance(float)} to simulate playback.
+ */
+public class HeadlessAudio implements Audio, SoundDurationResolver, MusicDurationResolver {
+
+	private final float defaultDuration;
+
+	private final ObjectFloatMap<String> durations = new ObjectFloatMap<String>();
+
+	private final Array<HeadlessSound> sounds = new Array<HeadlessSound>();
+	private final Array<HeadlessMusic> musics = new Array<HeadlessMusic>();
+
+	/**
+	 * @param defaultDuration
+	 *            duration (in seconds) of sounds and musics whose path has no
+	 *            registered duration
+	 */
+	public HeadlessAudio(float defaultDuration) {
+		this.defaultDuration = defaultDuration;
+	}
+
+	/** Set the duration (in seconds) of sounds and musics created from given path. */
+	public void setDuration(String path, float duration) {
+		durations.put(path, duration);
+	}
+
+	public float getDuration(FileHandle file) {
+		return durations.get(file.path(), defaultDuration);
+	}
+
+	/** Get sounds created so far and not disposed of yet. */
+	public Array<HeadlessSound> getSounds() {
+		return sounds;
+	}
+
+	/** Get musics created so far and not disposed of yet. */
+	public Array<HeadlessMusic> getMusics() {
+		return musics;
+	}
+
+	/** Simulate playback of all sounds and musics for some time. */
+	public void advance(float delta) {
+		for (int i = sounds.size - 1; i >= 0; i--) {
+			HeadlessSound sound = sounds.get(i);
+			if (sound.isDisposed())
+				sounds.removeIndex(i);
+			else
+				sound.advance(delta);
+		}
+		for (int i = musics.size - 1; i >= 0; i--) {
+			HeadlessMusic music = musics.get(i);
+			if (music.isDisposed())
+				musics.removeIndex(i);
+			else
+				music.advance(delta);
+		}
+	}
+
+	@Override
+	public AudioDevice newAudioDevice(int samplingRate, boolean isMono) {
+		throw new GdxRuntimeException("Audio devices are not supported by HeadlessAudio");
+	}
+
+	@Override
+	public AudioRecorder newAudioRecorder(int samplingRate, boolean isMono) {
+		throw new GdxRuntimeException("Audio recorders are not supported by HeadlessAudio");
+	}
+
+	@Override
+	public Sound newSound(FileHandle fileHandle) {
+		HeadlessSound sound = new HeadlessSound(getDuration(fileHandle));
+		sounds.add(sound);
+		return sound;
+	}
+
+	@Override
+	public Music newMusic(FileHandle file) {
+		HeadlessMusic music = new HeadlessMusic(getDuration(file));
+		musics.add(music);
+		return music;
+	}
+
+	@Override
+	public float resolveSoundDuration(Sound sound, FileHandle soundFile) {
+		if (sound instanceof HeadlessSound)
+			return ((HeadlessSound) sound).getDuration();
+		return getDuration(soundFile);
+	}
+
+	@Override
+	public float resolveMusicDuration(Music music, FileHandle musicFile) {
+		if (music instanceof HeadlessMusic)
+			return ((HeadlessMusic) music).getDuration();
+		return getDuration(musicFile);
+	}
+
+}
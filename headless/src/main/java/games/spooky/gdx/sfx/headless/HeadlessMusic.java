@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.headless;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Soundless {@link Music}, keeping track of its state and counting calls made
+ * to it. Playback time only goes by on {@link #advance(float)}.
+ */
+public class HeadlessMusic implements Music {
+
+	private final float duration;
+
+	private final ObjectIntMap<String> calls = new ObjectIntMap<String>();
+
+	private boolean playing = false;
+	private boolean looping = false;
+	private float volume = 1f;
+	private float pan = 0f;
+	private float position = 0f;
+
+	private OnCompletionListener listener;
+
+	private boolean disposed = false;
+
+	/**
+	 * @param duration
+	 *            duration of this music in seconds
+	 */
+	public HeadlessMusic(float duration) {
+		this.duration = duration;
+	}
+
+	public float getDuration() {
+		return duration;
+	}
+
+	/** Get the number of calls made to given method (e.g. "setVolume") since creation or last {@link #resetCallCounts()}. */
+	public int getCallCount(String method) {
+		return calls.get(method, 0);
+	}
+
+	public void resetCallCounts() {
+		calls.clear();
+	}
+
+	public float getPan() {
+		return pan;
+	}
+
+	/**
+	 * Simulate playback for some time. Once over, a looping music starts over,
+	 * others stop and notify their completion listener.
+	 */
+	public void advance(float delta) {
+		if (!playing)
+			return;
+
+		position += delta;
+		if (position >= duration) {
+			if (looping && duration > 0f) {
+				position %= duration;
+			} else {
+				playing = false;
+				position = 0f;
+				if (listener != null)
+					listener.onCompletion(this);
+			}
+		}
+	}
+
+	@Override
+	public void play() {
+		record("play");
+		if (!disposed)
+			playing = true;
+	}
+
+	@Override
+	public void pause() {
+		record("pause");
+		playing = false;
+	}
+
+	@Override
+	public void stop() {
+		record("stop");
+		playing = false;
+		position = 0f;
+	}
+
+	@Override
+	public boolean isPlaying() {
+		return playing;
+	}
+
+	@Override
+	public void setLooping(boolean isLooping) {
+		record("setLooping");
+		this.looping = isLooping;
+	}
+
+	@Override
+	public boolean isLooping() {
+		return looping;
+	}
+
+	@Override
+	public void setVolume(float volume) {
+		record("setVolume");
+		this.volume = volume;
+	}
+
+	@Override
+	public float getVolume() {
+		return volume;
+	}
+
+	@Override
+	public void setPan(float pan, float volume) {
+		record("setPan");
+		this.pan = pan;
+		this.volume = volume;
+	}
+
+	@Override
+	public void setPosition(float position) {
+		record("setPosition");
+		this.position = Math.max(0f, Math.min(position, duration));
+	}
+
+	@Override
+	public float getPosition() {
+		return position;
+	}
+
+	@Override
+	public void dispose() {
+		record("dispose");
+		playing = false;
+		disposed = true;
+	}
+
+	public boolean isDisposed() {
+		return disposed;
+	}
+
+	@Override
+	public void setOnCompletionListener(OnCompletionListener listener) {
+		this.listener = listener;
+	}
+
+	private void record(String method) {
+		calls.getAndIncrement(method, 0, 1);
+	}
+
+	@Override
+	public String toString() {
+		return "HeadlessMusic [" + duration + "]";
+	}
+
+}
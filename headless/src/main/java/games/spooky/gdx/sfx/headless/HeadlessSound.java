@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.headless;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Soundless {@link Sound}, keeping track of the state of its instances and
+ * counting calls made to it. Playback time only goes by on
+ * {@link #advance(float)}.
+ */
+public class HeadlessSound implements Sound {
+
+	private static class Voice {
+		long id;
+		int index;
+		float volume;
+		float pitch;
+		float pan;
+		boolean looping;
+		boolean paused;
+		float elapsed;
+	}
+
+	private final float duration;
+
+	private final Pool<Voice> pool = new Pool<Voice>() {
+		@Override
+		protected Voice newObject() {
+			return new Voice();
+		}
+	};
+
+	private final LongMap<Voice> voicesById = new LongMap<Voice>();
+
+	/** Same voices, densely packed for iteration */
+	private final Array<Voice> voices = new Array<Voice>(false, 16);
+
+	private final ObjectIntMap<String> calls = new ObjectIntMap<String>();
+
+	private int maxVoices = Integer.MAX_VALUE;
+
+	private long nextId = 0L;
+
+	private boolean disposed = false;
+
+	/**
+	 * @param duration
+	 *            duration of this sound in seconds, at pitch 1
+	 */
+	public HeadlessSound(float duration) {
+		this.duration = duration;
+	}
+
+	public float getDuration() {
+		return duration;
+	}
+
+	public int getMaxVoices() {
+		return maxVoices;
+	}
+
+	/** Set how many instances may play at once, further plays returning -1 like a backend out of voices would. */
+	public void setMaxVoices(int maxVoices) {
+		this.maxVoices = maxVoices;
+	}
+
+	/** Get the number of calls made to given method (e.g. "setPan") since creation or last {@link #resetCallCounts()}. */
+	public int getCallCount(String method) {
+		return calls.get(method, 0);
+	}
+
+	public void resetCallCounts() {
+		calls.clear();
+	}
+
+	/** Get the number of instances currently playing or paused. */
+	public int getVoiceCount() {
+		return voices.size;
+	}
+
+	public boolean isPlaying(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice != null && !voice.paused;
+	}
+
+	public boolean isPaused(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice != null && voice.paused;
+	}
+
+	/** @return the volume of given instance, 0 if it is not around */
+	public float getVolume(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice == null ? 0f : voice.volume;
+	}
+
+	/** @return the pitch of given instance, 0 if it is not around */
+	public float getPitch(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice == null ? 0f : voice.pitch;
+	}
+
+	/** @return the panning of given instance, 0 if it is not around */
+	public float getPan(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice == null ? 0f : voice.pan;
+	}
+
+	public boolean isLooping(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice != null && voice.looping;
+	}
+
+	/** @return the time (in seconds) given instance has been playing since its last loop, 0 if it is not around */
+	public float getElapsed(long soundId) {
+		Voice voice = voicesById.get(soundId);
+		return voice == null ? 0f : voice.elapsed;
+	}
+
+	/**
+	 * Simulate playback for some time: instances progress according to their
+	 * pitch, and those not looping stop once over.
+	 */
+	public void advance(float delta) {
+		Array<Voice> voices = this.voices;
+		for (int i = voices.size - 1; i >= 0; i--) {
+			Voice voice = voices.get(i);
+			if (voice.paused)
+				continue;
+			voice.elapsed += delta * voice.pitch;
+			if (voice.elapsed >= duration) {
+				if (voice.looping && duration > 0f)
+					voice.elapsed %= duration;
+				else
+					remove(voice);
+			}
+		}
+	}
+
+	@Override
+	public long play() {
+		return start("play", 1f, 1f, 0f, false);
+	}
+
+	@Override
+	public long play(float volume) {
+		return start("play", volume, 1f, 0f, false);
+	}
+
+	@Override
+	public long play(float volume, float pitch, float pan) {
+		return start("play", volume, pitch, pan, false);
+	}
+
+	@Override
+	public long loop() {
+		return start("loop", 1f, 1f, 0f, true);
+	}
+
+	@Override
+	public long loop(float volume) {
+		return start("loop", volume, 1f, 0f, true);
+	}
+
+	@Override
+	public long loop(float volume, float pitch, float pan) {
+		return start("loop", volume, pitch, pan, true);
+	}
+
+	@Override
+	public void stop() {
+		record("stop");
+		while (voices.size > 0)
+			remove(voices.peek());
+	}
+
+	@Override
+	public void pause() {
+		record("pause");
+		for (int i = 0, n = voices.size; i < n; i++)
+			voices.get(i).paused = true;
+	}
+
+	@Override
+	public void resume() {
+		record("resume");
+		for (int i = 0, n = voices.size; i < n; i++)
+			voices.get(i).paused = false;
+	}
+
+	@Override
+	public void dispose() {
+		record("dispose");
+		while (voices.size > 0)
+			remove(voices.peek());
+		disposed = true;
+	}
+
+	public boolean isDisposed() {
+		return disposed;
+	}
+
+	@Override
+	public void stop(long soundId) {
+		record("stop");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null)
+			remove(voice);
+	}
+
+	@Override
+	public void pause(long soundId) {
+		record("pause");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null)
+			voice.paused = true;
+	}
+
+	@Override
+	public void resume(long soundId) {
+		record("resume");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null)
+			voice.paused = false;
+	}
+
+	@Override
+	public void setLooping(long soundId, boolean looping) {
+		record("setLooping");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null)
+			voice.looping = looping;
+	}
+
+	@Override
+	public void setPitch(long soundId, float pitch) {
+		record("setPitch");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null)
+			voice.pitch = pitch;
+	}
+
+	@Override
+	public void setVolume(long soundId, float volume) {
+		record("setVolume");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null)
+			voice.volume = volume;
+	}
+
+	@Override
+	public void setPan(long soundId, float pan, float volume) {
+		record("setPan");
+		Voice voice = voicesById.get(soundId);
+		if (voice != null) {
+			voice.pan = pan;
+			voice.volume = volume;
+		}
+	}
+
+	private long start(String method, float volume, float pitch, float pan, boolean looping) {
+		record(method);
+		if (disposed || voices.size >= maxVoices)
+			return -1L;
+
+		Voice voice = pool.obtain();
+		voice.id = nextId++;
+		voice.volume = volume;
+		voice.pitch = pitch;
+		voice.pan = pan;
+		voice.looping = looping;
+		voice.paused = false;
+		voice.elapsed = 0f;
+		voice.index = voices.size;
+		voices.add(voice);
+		voicesById.put(voice.id, voice);
+		return voice.id;
+	}
+
+	private void remove(Voice voice) {
+		Array<Voice> voices = this.voices;
+		Voice last = voices.pop();
+		if (last != voice) {
+			voices.set(voice.index, last);
+			last.index = voice.index;
+		}
+		voicesById.remove(voice.id);
+		pool.free(voice);
+	}
+
+	private void record(String method) {
+		calls.getAndIncrement(method, 0, 1);
+	}
+
+	@Override
+	public String toString() {
+		return "HeadlessSound [" + duration + "]";
+	}
+
+}
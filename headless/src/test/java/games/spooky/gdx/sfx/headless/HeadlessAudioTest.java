@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+
+public class HeadlessAudioTest {
+
+	@Test
+	public void resolvesDurationsByPath() {
+		HeadlessAudio audio = new HeadlessAudio(3f);
+		audio.setDuration("sfx/shot.wav", 0.25f);
+
+		Sound shot = audio.newSound(new FileHandle("sfx/shot.wav"));
+		Music theme = audio.newMusic(new FileHandle("music/theme.ogg"));
+
+		assertEquals(0.25f, audio.resolveSoundDuration(shot, new FileHandle("sfx/shot.wav")), 0f);
+		assertEquals(3f, audio.resolveMusicDuration(theme, new FileHandle("music/theme.ogg")), 0f);
+	}
+
+	@Test
+	public void advancesEverythingCreated() {
+		HeadlessAudio audio = new HeadlessAudio(1f);
+		HeadlessSound sound = (HeadlessSound) audio.newSound(new FileHandle("a.wav"));
+		HeadlessMusic music = (HeadlessMusic) audio.newMusic(new FileHandle("b.ogg"));
+
+		long id = sound.play();
+		music.play();
+		audio.advance(1.5f);
+
+		assertFalse(sound.isPlaying(id));
+		assertFalse(music.isPlaying());
+	}
+
+	@Test
+	public void forgetsDisposedAudio() {
+		HeadlessAudio audio = new HeadlessAudio(1f);
+		audio.newSound(new FileHandle("a.wav")).dispose();
+		audio.newMusic(new FileHandle("b.ogg"));
+
+		audio.advance(0f);
+		assertEquals(0, audio.getSounds().size);
+		assertEquals(1, audio.getMusics().size);
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Music.OnCompletionListener;
+
+public class HeadlessMusicTest {
+
+	@Test
+	public void completesOnceOver() {
+		HeadlessMusic music = new HeadlessMusic(2f);
+		final int[] completions = new int[1];
+		music.setOnCompletionListener(new OnCompletionListener() {
+			@Override
+			public void onCompletion(Music music) {
+				completions[0]++;
+			}
+		});
+
+		music.play();
+		music.advance(1.5f);
+		assertTrue(music.isPlaying());
+		assertEquals(1.5f, music.getPosition(), 0.0001f);
+		assertEquals(0, completions[0]);
+
+		music.advance(1f);
+		assertFalse(music.isPlaying());
+		assertEquals(0f, music.getPosition(), 0f);
+		assertEquals(1, completions[0]);
+	}
+
+	@Test
+	public void loopingNeverCompletes() {
+		HeadlessMusic music = new HeadlessMusic(2f);
+		music.setLooping(true);
+
+		music.play();
+		music.advance(5f);
+		assertTrue(music.isPlaying());
+		assertEquals(1f, music.getPosition(), 0.0001f);
+	}
+
+	@Test
+	public void onlyPlayingMusicProgresses() {
+		HeadlessMusic music = new HeadlessMusic(2f);
+		music.advance(1f);
+		assertEquals(0f, music.getPosition(), 0f);
+
+		music.play();
+		music.advance(1f);
+		music.pause();
+		music.advance(1f);
+		assertEquals(1f, music.getPosition(), 0.0001f);
+
+		music.stop();
+		assertEquals(0f, music.getPosition(), 0f);
+		assertEquals(1, music.getCallCount("stop"));
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-2025 Spooky Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package games.spooky.gdx.sfx.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HeadlessSoundTest {
+
+	@Test
+	public void oneShotStopsOnceOver() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		long id = sound.play(0.5f, 1f, -0.5f);
+
+		assertTrue(sound.isPlaying(id));
+		assertEquals(0.5f, sound.getVolume(id), 0f);
+		assertEquals(-0.5f, sound.getPan(id), 0f);
+
+		sound.advance(0.75f);
+		assertTrue(sound.isPlaying(id));
+		sound.advance(0.5f);
+		assertFalse(sound.isPlaying(id));
+		assertEquals(0, sound.getVoiceCount());
+	}
+
+	@Test
+	public void loopWrapsAround() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		long id = sound.loop();
+
+		sound.advance(2.5f);
+		assertTrue(sound.isPlaying(id));
+		assertEquals(0.5f, sound.getElapsed(id), 0.0001f);
+	}
+
+	@Test
+	public void pitchSpeedsPlaybackUp() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		long id = sound.play(1f, 2f, 0f);
+
+		sound.advance(0.25f);
+		assertEquals(0.5f, sound.getElapsed(id), 0.0001f);
+		sound.advance(0.25f);
+		assertFalse(sound.isPlaying(id));
+	}
+
+	@Test
+	public void pausedVoicesDontProgress() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		long id = sound.play();
+
+		sound.pause(id);
+		sound.advance(2f);
+		assertTrue(sound.isPaused(id));
+		assertEquals(0f, sound.getElapsed(id), 0f);
+
+		sound.resume(id);
+		assertTrue(sound.isPlaying(id));
+	}
+
+	@Test
+	public void runsOutOfVoices() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		sound.setMaxVoices(2);
+
+		assertTrue(sound.play() >= 0L);
+		long id = sound.play();
+		assertTrue(id >= 0L);
+		assertEquals(-1L, sound.play());
+
+		sound.stop(id);
+		assertTrue(sound.play() >= 0L);
+	}
+
+	@Test
+	public void countsCalls() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		long id = sound.play();
+		sound.setVolume(id, 0.5f);
+		sound.setVolume(id, 0.25f);
+		sound.setPan(id, 0f, 1f);
+
+		assertEquals(1, sound.getCallCount("play"));
+		assertEquals(2, sound.getCallCount("setVolume"));
+		assertEquals(1, sound.getCallCount("setPan"));
+		assertEquals(0, sound.getCallCount("setPitch"));
+
+		sound.resetCallCounts();
+		assertEquals(0, sound.getCallCount("setVolume"));
+	}
+
+	@Test
+	public void disposedSoundDoesntPlay() {
+		HeadlessSound sound = new HeadlessSound(1f);
+		sound.dispose();
+
+		assertTrue(sound.isDisposed());
+		assertEquals(-1L, sound.play());
+	}
+
+}